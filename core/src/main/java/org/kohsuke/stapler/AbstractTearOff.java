@@ -25,8 +25,6 @@ package org.kohsuke.stapler;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.io.File;
-import java.lang.ref.Reference;
-import java.lang.ref.SoftReference;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
@@ -53,14 +51,18 @@ public abstract class AbstractTearOff<CLT, S, E extends Exception> extends Cachi
 
     private static final class ExpirableCacheHit<S> {
         private final long timestamp;
-        private final Reference<S> script;
+        private final S script;
 
         ExpirableCacheHit(long timestamp, S script) {
             this.timestamp = timestamp;
-            this.script = new SoftReference<>(script);
+            this.script = script;
         }
     }
 
+    /**
+     * Scripts by URL, used instead of {@link ScriptCache} when {@link MetaClass#NO_CACHE} is set
+     * so that modified scripts are reloaded. Only holds scripts that exist, so it's bounded by their number.
+     */
     private final Map<String, ExpirableCacheHit<S>> cachedScripts = new ConcurrentHashMap<>();
 
     protected AbstractTearOff(MetaClass owner, Class<CLT> cltClass) {
@@ -76,6 +78,14 @@ public abstract class AbstractTearOff<CLT, S, E extends Exception> extends Cachi
         return owner.webApp;
     }
 
+    /**
+     * The cache of the {@link WebApp}.
+     */
+    @Override
+    protected ScriptCache getScriptCache() {
+        return owner.webApp.getScriptCache();
+    }
+
     /**
      * The file extension of this kind of scripts, such as ".jelly"
      */
@@ -130,42 +140,20 @@ public abstract class AbstractTearOff<CLT, S, E extends Exception> extends Cachi
                         return parseScript(res);
                     } else {
                         ExpirableCacheHit<S> cached = cachedScripts.get(res.toString());
-                        if (cached == null) {
-                            S script;
-                            if (LOGGER.isLoggable(Level.FINE)) {
-                                long start = System.nanoTime();
-                                try {
-                                    script = parseScript(res);
-                                } finally {
-                                    LOGGER.log(Level.FINE, "cache miss; took {0}ms to parse {1}", new Object[] {
-                                        (System.nanoTime() - start) / 1_000_000, res,
-                                    });
-                                }
-                            } else {
-                                LOGGER.log(Level.FINE, "cache miss on {0}", res);
-                                script = parseScript(res);
-                            }
-                            cachedScripts.put(res.toString(), new ExpirableCacheHit<>(timestamp, script));
-                            return script;
-                        } else {
-                            S script;
-                            if (timestamp == cached.timestamp) {
-                                script = cached.script.get();
-                                if (script == null) {
-                                    LOGGER.log(Level.FINE, "cache hit on {0} but value collected", res);
-                                } else {
-                                    LOGGER.log(Level.FINE, "cache hit on {0}", res);
-                                }
-                            } else {
-                                LOGGER.log(Level.FINE, "expired cache hit on {0}", res);
-                                script = null;
-                            }
-                            if (script == null) {
-                                script = parseScript(res);
-                                cachedScripts.put(res.toString(), new ExpirableCacheHit<>(timestamp, script));
-                            }
-                            return script;
+                        if (cached != null && timestamp == cached.timestamp) {
+                            LOGGER.log(Level.FINE, "cache hit on {0}", res);
+                            getScriptCache().hit();
+                            return cached.script;
                         }
+                        LOGGER.log(Level.FINE, cached == null ? "cache miss on {0}" : "expired cache hit on {0}", res);
+                        getScriptCache().miss();
+                        long start = System.nanoTime();
+                        S script = parseScript(res);
+                        long took = System.nanoTime() - start;
+                        getScriptCache().loaded(took);
+                        LOGGER.log(Level.FINE, "took {0}ms to parse {1}", new Object[] {took / 1_000_000, res});
+                        cachedScripts.put(res.toString(), new ExpirableCacheHit<>(timestamp, script));
+                        return script;
                     }
                 }
             } else {
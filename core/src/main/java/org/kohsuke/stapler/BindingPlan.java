@@ -0,0 +1,171 @@
+package org.kohsuke.stapler;
+
+import java.beans.Introspector;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reflective information needed to data-bind instances of a class, computed once per class.
+ *
+ * <p>
+ * Binding a large form submission instantiates the same handful of types over and over,
+ * so the constructor look-up, the parameter names and the {@link DataBoundSetter}s are
+ * remembered here instead of being rediscovered for every object.
+ *
+ * @see RequestImpl#bindJSON(Type, Class, Object)
+ * @see RequestImpl#bindParameters(Class, String, int)
+ */
+final class BindingPlan {
+    private static final ClassValue<BindingPlan> PLANS = new ClassValue<>() {
+        @Override
+        protected BindingPlan computeValue(Class<?> type) {
+            return new BindingPlan(type);
+        }
+    };
+
+    static BindingPlan get(Class<?> type) {
+        return PLANS.get(type);
+    }
+
+    final Class<?> type;
+
+    /**
+     * Lazily computed, since not all the types we bind have a data-bound constructor.
+     */
+    private volatile ConstructorPlan constructor;
+
+    /**
+     * {@link DataBoundSetter} fields keyed by their names. Fields in subtypes shadow those in base types.
+     */
+    private final Map<String, Field> setterFields;
+
+    /**
+     * {@link DataBoundSetter} methods keyed by their property names.
+     */
+    private final Map<String, Method> setterMethods;
+
+    private BindingPlan(Class<?> type) {
+        this.type = type;
+
+        Map<String, Field> fields = new HashMap<>();
+        Map<String, Method> methods = new HashMap<>();
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            for (Field f : c.getDeclaredFields()) {
+                if (f.getAnnotation(DataBoundSetter.class) != null) {
+                    fields.putIfAbsent(f.getName(), f);
+                }
+            }
+            // look for public setter that has the matching name
+            for (Method m : c.getDeclaredMethods()) {
+                if (!Modifier.isPublic(m.getModifiers())
+                        || !m.getName().startsWith("set")
+                        || m.getParameterTypes().length != 1
+                        || !m.isAnnotationPresent(DataBoundSetter.class)) {
+                    continue;
+                }
+                methods.putIfAbsent(Introspector.decapitalize(m.getName().substring(3)), m);
+            }
+        }
+        this.setterFields = fields.isEmpty() ? Collections.emptyMap() : fields;
+        this.setterMethods = methods.isEmpty() ? Collections.emptyMap() : methods;
+    }
+
+    /**
+     * Gets the constructor used for data binding.
+     *
+     * @throws NoStaplerConstructorException
+     *      if the type has no data-bound constructor.
+     * @throws IllegalArgumentException
+     *      if the constructor doesn't match the parameter names.
+     */
+    ConstructorPlan getConstructor() {
+        ConstructorPlan c = constructor;
+        if (c == null) {
+            // failures are not cached, so that they are reported consistently every time
+            String[] names = ClassDescriptor.loadConstructorParamNames(type);
+            constructor = c = new ConstructorPlan(findConstructor(type, names.length), names);
+        }
+        return c;
+    }
+
+    /**
+     * Does this type have a data-bound constructor?
+     */
+    boolean hasConstructor() {
+        try {
+            getConstructor();
+            return true;
+        } catch (NoStaplerConstructorException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Finds the field annotated with {@link DataBoundSetter} of the given name, or null.
+     */
+    Field getSetterField(String name) {
+        return setterFields.get(name);
+    }
+
+    /**
+     * Finds the public setter method annotated with {@link DataBoundSetter} for the given property, or null.
+     */
+    Method getSetterMethod(String name) {
+        return setterMethods.get(name);
+    }
+
+    private static Constructor<?> findConstructor(Class<?> type, int length) {
+        Constructor<?>[] ctrs = type.getConstructors();
+        // one with DataBoundConstructor is the most reliable
+        for (Constructor<?> c : ctrs) {
+            if (c.getAnnotation(DataBoundConstructor.class) != null) {
+                if (c.getParameterTypes().length != length) {
+                    throw new IllegalArgumentException(
+                            c
+                                    + " has @DataBoundConstructor but it doesn't match with your .stapler file. Try clean rebuild");
+                }
+                return c;
+            }
+        }
+        // if not, maybe this was from @stapler-constructor,
+        // so look for the constructor with the expected argument length.
+        // this is not very reliable.
+        for (Constructor<?> c : ctrs) {
+            if (c.getParameterTypes().length == length) {
+                return c;
+            }
+        }
+        throw new IllegalArgumentException(type + " does not have a constructor with " + length + " arguments");
+    }
+
+    /**
+     * The data-bound constructor and what we know about its parameters.
+     */
+    static final class ConstructorPlan {
+        final Constructor<?> constructor;
+        final String[] names;
+        /**
+         * {@link #names} as a list, to exclude them from the setter injection.
+         */
+        final List<String> nameList;
+
+        final Class<?>[] types;
+        final Type[] genericTypes;
+
+        ConstructorPlan(Constructor<?> constructor, String[] names) {
+            this.constructor = constructor;
+            this.names = names;
+            this.nameList = Collections.unmodifiableList(Arrays.asList(names.clone()));
+            this.types = constructor.getParameterTypes();
+            this.genericTypes = constructor.getGenericParameterTypes();
+        }
+    }
+}
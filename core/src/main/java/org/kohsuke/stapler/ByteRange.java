@@ -0,0 +1,125 @@
+package org.kohsuke.stapler;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A range in the {@code Range} header of a partial GET, resolved against the length of the content.
+ *
+ * @param start
+ *      The first byte in the range.
+ * @param end
+ *      One past the last byte in the range. Note that this is exclusive, unlike in the header.
+ */
+record ByteRange(long start, long end) {
+    /**
+     * Beyond this, the client is more likely to be abusive than helpful, so we just send the whole thing.
+     */
+    private static final int MAX_RANGES = 64;
+
+    /**
+     * Strings like "5-300", "0-900", "100-", or "-500"
+     */
+    private static final Pattern SPEC = Pattern.compile("(\\d*)-(\\d*)");
+
+    long length() {
+        return end - start;
+    }
+
+    /**
+     * The value of the {@code Content-Range} header for this range.
+     */
+    String toContentRange(long contentLength) {
+        return "bytes " + start + "-" + (end - 1) + '/' + contentLength; // end is inclusive.
+    }
+
+    /**
+     * Parses the value of the {@code Range} header.
+     *
+     * @return
+     *      null if the header doesn't look like something we can handle, in which case we should pretend
+     *      we didn't see it, instead of doing a proper error reporting.
+     *      This includes ranges that add up to more than the content, as asking for the same bytes over and over
+     *      is a way to make us send far more than the content itself.
+     *      An empty list if none of the ranges is satisfiable.
+     *      Otherwise, the ranges in ascending order, with those that overlap or are adjacent merged.
+     */
+    static List<ByteRange> parse(String header, long contentLength) {
+        if (!header.startsWith("bytes=")) {
+            return null;
+        }
+        String[] specs = header.substring(6).split(",");
+        if (specs.length > MAX_RANGES) {
+            return null;
+        }
+        List<ByteRange> r = new ArrayList<>(specs.length);
+        for (String spec : specs) {
+            Matcher m = SPEC.matcher(spec.trim());
+            if (!m.matches()) {
+                return null;
+            }
+            try {
+                long s, e;
+                if (m.group(1).isEmpty()) {
+                    // suffix range, meaning the last N bytes
+                    if (m.group(2).isEmpty()) {
+                        return null;
+                    }
+                    s = Math.max(0, contentLength - Long.parseLong(m.group(2)));
+                    e = contentLength;
+                } else {
+                    s = Long.parseLong(m.group(1));
+                    if (!m.group(2).isEmpty()) {
+                        e = Long.parseLong(m.group(2)) + 1; // range set is inclusive
+                        if (e <= s) {
+                            return null; // syntactically invalid
+                        }
+                        e = Math.min(e, contentLength);
+                    } else {
+                        e = contentLength; // unspecified value means "all the way to the end"
+                    }
+                }
+                if (s < e) {
+                    r.add(new ByteRange(s, e));
+                }
+                // otherwise unsatisfiable, which is just skipped
+            } catch (NumberFormatException x) {
+                return null; // too big
+            }
+        }
+
+        long total = 0;
+        for (ByteRange br : r) {
+            total += br.length();
+        }
+        if (total > contentLength) {
+            return null;
+        }
+        return coalesce(r);
+    }
+
+    /**
+     * Sorts the ranges and merges those that overlap or are adjacent.
+     */
+    private static List<ByteRange> coalesce(List<ByteRange> ranges) {
+        if (ranges.size() < 2) {
+            return ranges;
+        }
+        ranges.sort(Comparator.comparingLong(ByteRange::start));
+        List<ByteRange> r = new ArrayList<>(ranges.size());
+        ByteRange last = ranges.get(0);
+        for (ByteRange br : ranges.subList(1, ranges.size())) {
+            if (br.start <= last.end) {
+                last = new ByteRange(last.start, Math.max(last.end, br.end));
+            } else {
+                r.add(last);
+                last = br;
+            }
+        }
+        r.add(last);
+        return r;
+    }
+}
@@ -1,10 +1,7 @@
 package org.kohsuke.stapler;
 
-import java.lang.ref.Reference;
-import java.lang.ref.SoftReference;
 import java.net.URL;
 import java.util.Map;
-import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -13,18 +10,18 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public abstract class CachingScriptLoader<S, E extends Exception> {
     /**
-     * Compiled scripts of this class.
-     * Access needs to be synchronized.
-     *
-     * <p>
-     * Jelly leaks memory (because Scripts hold on to Tag)
-     * which usually holds on to JellyContext that was last used to run it,
-     * which often holds on to some big/heavy objects.)
-     *
-     * So it's important to allow Scripts to be garbage collected.
-     * This is not an ideal fix, but it works.
+     * Compiled scripts of this class that are {@link #isPinned(String) pinned}.
+     * Others are in {@link ScriptCache}.
+     */
+    private final Map<String, S> pinned = new ConcurrentHashMap<>();
+
+    /**
+     * Stands for this loader in {@link ScriptCache}, which mustn't refer to the loader itself,
+     * as that would keep its class, and the class loader of that, from being garbage collected.
      */
-    private final Map<String, Optional<Reference<S>>> scripts = new ConcurrentHashMap<>();
+    /*package*/ final Object cacheKey = new Object();
+
+    private volatile ScriptCache scriptCache;
 
     /**
      * Locates the view script of the given name.
@@ -44,25 +41,65 @@ public abstract class CachingScriptLoader<S, E extends Exception> {
      *      to do mix-in.
      * @return null if none was found.
      */
+    @SuppressWarnings("unchecked")
     public S findScript(String name) throws E {
         if (MetaClass.NO_CACHE) {
             return loadScript(name);
+        }
+        ScriptCache cache = getScriptCache();
+        S s = pinned.get(name);
+        if (s != null) {
+            cache.hit();
+            return s;
+        }
+        Object cached = cache.get(this, name);
+        if (cached == ScriptCache.NOT_FOUND) {
+            return null;
+        }
+        if (cached != null) {
+            return (S) cached;
+        }
+
+        long start = System.nanoTime();
+        s = loadScript(name);
+        cache.loaded(System.nanoTime() - start);
+        if (s != null && isPinned(name)) {
+            pinned.put(name, s);
         } else {
-            Optional<Reference<S>> sr = scripts.get(name);
-            S s;
-            if (sr == null) { // never before computed
-                s = null;
-            } else if (sr.isEmpty()) { // cached as null
-                return null;
-            } else { // cached as non-null; may or may not still have value
-                s = sr.get().get();
-            }
-            if (s == null) { // needs to be computed
-                s = loadScript(name);
-                scripts.put(name, s == null ? Optional.empty() : Optional.of(new SoftReference<>(s)));
+            cache.put(this, name, s == null ? ScriptCache.NOT_FOUND : s);
+        }
+        return s;
+    }
+
+    /**
+     * Where the scripts of this loader that aren't {@link #isPinned(String) pinned} are cached.
+     * Unless overridden, each loader has its own.
+     */
+    protected ScriptCache getScriptCache() {
+        ScriptCache c = scriptCache;
+        if (c == null) {
+            synchronized (this) {
+                c = scriptCache;
+                if (c == null) {
+                    scriptCache = c = new ScriptCache();
+                }
             }
-            return s;
         }
+        return c;
+    }
+
+    /**
+     * Whether the script of the given name is kept for as long as this loader,
+     * instead of being subject to eviction from {@link ScriptCache}.
+     * By default, that's the case of {@code index} and {@code main} views, which are the most used.
+     */
+    protected boolean isPinned(String name) {
+        String base = name.substring(name.lastIndexOf('/') + 1);
+        int dot = base.indexOf('.');
+        if (dot >= 0) {
+            base = base.substring(0, dot);
+        }
+        return base.equals("index") || base.equals("main");
     }
 
     /**
@@ -74,7 +111,8 @@ public abstract class CachingScriptLoader<S, E extends Exception> {
      * Discards the cached script.
      */
     public void clearScripts() {
-        scripts.clear();
+        pinned.clear();
+        getScriptCache().remove(this);
     }
 
     protected abstract URL getResource(String name);
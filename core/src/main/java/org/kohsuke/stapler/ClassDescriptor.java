@@ -277,6 +277,13 @@ public final class ClassDescriptor {
      * Otherwise, look for {@link CapturedParameterNames} annotation.
      */
     public String[] loadConstructorParamNames() {
+        return loadConstructorParamNames(clazz);
+    }
+
+    /**
+     * Same as {@link #loadConstructorParamNames()} but without the cost of building a {@link ClassDescriptor}.
+     */
+    static String[] loadConstructorParamNames(Class<?> clazz) {
         Constructor<?>[] ctrs = clazz.getConstructors();
         // which constructor was data bound?
         Constructor<?> dbc = null;
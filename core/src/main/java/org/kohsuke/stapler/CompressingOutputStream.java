@@ -0,0 +1,285 @@
+package org.kohsuke.stapler;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * {@link OutputStream} that applies the HTTP content encoding negotiated with the client.
+ *
+ * <p>
+ * Whether to compress is decided lazily, when the first {@link #THRESHOLD} bytes have been written
+ * (or when the stream is flushed or closed), so that the content type set by the time of the first
+ * write is honored, and so that tiny responses, for which compression only adds overhead, go out as-is.
+ *
+ * @see ResponseImpl#getCompressedOutputStream(HttpServletRequest)
+ */
+final class CompressingOutputStream extends OutputStream {
+    /**
+     * Responses smaller than this many bytes are sent uncompressed.
+     */
+    static final int THRESHOLD = Integer.getInteger(CompressingOutputStream.class.getName() + ".threshold", 1024);
+
+    /**
+     * Set to true to compress dynamically generated responses, such as Jelly views and exported beans.
+     * This is off by default, as the servlet container or a reverse proxy in front of it often takes care of that
+     * already, and compressing twice only costs CPU. Responses that already have a {@code Content-Encoding}
+     * are never compressed again.
+     */
+    static boolean ENABLED = Boolean.getBoolean(CompressingOutputStream.class.getName() + ".enabled");
+
+    /**
+     * Set to true to disable the compression altogether, including serving precompressed static resources.
+     */
+    static boolean DISABLED = Boolean.getBoolean(CompressingOutputStream.class.getName() + ".disabled");
+
+    /**
+     * Content types that are already compressed, thus do not benefit from another round of compression.
+     * Everything under {@code image/}, {@code audio/} and {@code video/} is also considered compressed,
+     * except for SVG.
+     */
+    private static final Set<String> COMPRESSED_TYPES = Set.of(
+            "application/gzip",
+            "application/x-gzip",
+            "application/zip",
+            "application/x-bzip2",
+            "application/x-xz",
+            "application/x-7z-compressed",
+            "application/zstd",
+            "application/java-archive",
+            "application/pdf",
+            "font/woff",
+            "font/woff2");
+
+    enum Encoding {
+        GZIP("gzip"),
+        DEFLATE("deflate");
+
+        final String token;
+
+        Encoding(String token) {
+            this.token = token;
+        }
+
+        OutputStream wrap(OutputStream out) throws IOException {
+            if (this == GZIP) {
+                return new GZIPOutputStream(out, 8192, true);
+            }
+            return new DeflaterOutputStream(out, new Deflater(), 8192, true);
+        }
+    }
+
+    private final HttpServletResponse rsp;
+    private final Encoding encoding;
+
+    /**
+     * Bytes held back until we decide whether to compress.
+     * Null once the decision is made.
+     */
+    private byte[] buf = new byte[THRESHOLD];
+
+    private int len;
+
+    /**
+     * Where the data goes once the decision is made.
+     */
+    private OutputStream out;
+
+    private CompressingOutputStream(HttpServletResponse rsp, Encoding encoding) {
+        this.rsp = rsp;
+        this.encoding = encoding;
+    }
+
+    /**
+     * Creates an output stream that compresses data to the given response if the request allows it.
+     *
+     * @param raw
+     *      The stream of the response to send the data to.
+     */
+    static OutputStream create(HttpServletRequest req, HttpServletResponse rsp, OutputStream raw) {
+        Encoding e = encodingFor(req, rsp);
+        return e == null ? raw : create(rsp, e, raw);
+    }
+
+    /**
+     * Creates an output stream that compresses data to the given response with the given encoding,
+     * as picked by {@link #encodingFor}.
+     */
+    static OutputStream create(HttpServletResponse rsp, Encoding e, OutputStream raw) {
+        CompressingOutputStream r = new CompressingOutputStream(rsp, e);
+        r.out = raw; // retained until the decision is made
+        return r;
+    }
+
+    /**
+     * Picks the content encoding to use for the response to the given request, if compression is enabled.
+     *
+     * @return
+     *      null if the response should be sent uncompressed.
+     */
+    static Encoding encodingFor(HttpServletRequest req, HttpServletResponse rsp) {
+        if (!ENABLED || DISABLED) {
+            return null;
+        }
+        // the representation now depends on this header, regardless of what we end up choosing
+        rsp.addHeader("Vary", "Accept-Encoding");
+        return negotiate(req.getHeader("Accept-Encoding"));
+    }
+
+    /**
+     * Picks the content encoding to use from the value of the {@code Accept-Encoding} header.
+     *
+     * @return
+     *      null if the response should be sent uncompressed.
+     */
+    static Encoding negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return null;
+        }
+        float gzip = -1, deflate = -1, wildcard = -1;
+        for (String token : acceptEncoding.split(",")) {
+            String coding = token;
+            float q = 1;
+            int idx = token.indexOf(';');
+            if (idx >= 0) {
+                coding = token.substring(0, idx);
+                q = parseQuality(token.substring(idx + 1));
+            }
+            coding = coding.trim().toLowerCase(Locale.ENGLISH);
+            switch (coding) {
+                case "gzip":
+                case "x-gzip":
+                    gzip = Math.max(gzip, q);
+                    break;
+                case "deflate":
+                    deflate = Math.max(deflate, q);
+                    break;
+                case "*":
+                    wildcard = q;
+                    break;
+                default:
+                    break;
+            }
+        }
+        // codings not explicitly listed are covered by the wildcard, if any
+        if (gzip < 0) {
+            gzip = wildcard;
+        }
+        if (deflate < 0) {
+            deflate = wildcard;
+        }
+        if (gzip > 0 && gzip >= deflate) {
+            return Encoding.GZIP;
+        }
+        if (deflate > 0) {
+            return Encoding.DEFLATE;
+        }
+        return null;
+    }
+
+    private static float parseQuality(String params) {
+        for (String p : params.split(";")) {
+            p = p.trim();
+            if (p.startsWith("q=")) {
+                try {
+                    return Float.parseFloat(p.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * Is the content of the given type worth compressing?
+     */
+    static boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return true;
+        }
+        String type = contentType;
+        int idx = type.indexOf(';');
+        if (idx >= 0) {
+            type = type.substring(0, idx);
+        }
+        type = type.trim().toLowerCase(Locale.ENGLISH);
+        if (type.startsWith("image/")) {
+            return type.startsWith("image/svg");
+        }
+        if (type.startsWith("audio/") || type.startsWith("video/")) {
+            return false;
+        }
+        return !COMPRESSED_TYPES.contains(type);
+    }
+
+    /**
+     * Decides whether to compress, and flushes the held-back bytes accordingly.
+     */
+    private void decide(boolean compress) throws IOException {
+        OutputStream raw = out;
+        if (compress
+                && !rsp.isCommitted()
+                && !rsp.containsHeader("Content-Encoding")
+                && !rsp.containsHeader("Content-Length")
+                && isCompressible(rsp.getContentType())) {
+            rsp.setHeader("Content-Encoding", encoding.token);
+            out = encoding.wrap(raw);
+        }
+        byte[] b = buf;
+        buf = null;
+        out.write(b, 0, len);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (buf != null) {
+            if (len < buf.length) {
+                buf[len++] = (byte) b;
+                return;
+            }
+            decide(true);
+        }
+        out.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (buf != null) {
+            if (this.len + len <= buf.length) {
+                System.arraycopy(b, off, buf, this.len, len);
+                this.len += len;
+                return;
+            }
+            decide(true);
+        }
+        out.write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (buf != null) {
+            if (len == 0) {
+                return; // nothing to commit yet
+            }
+            // the caller wants the data out now, so we have to commit to a decision
+            decide(true);
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (buf != null) {
+            // never reached the threshold, so not worth compressing
+            decide(false);
+        }
+        out.close();
+    }
+}
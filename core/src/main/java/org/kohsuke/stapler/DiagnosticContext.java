@@ -0,0 +1,120 @@
+package org.kohsuke.stapler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Keeps track of what each thread is doing, such as which request it's handling and which views it's rendering,
+ * for diagnosing threads that are stuck or slow.
+ *
+ * <p>
+ * This used to be done by renaming threads, which shows up in thread dumps, but is a native call
+ * that's made for every view, and doesn't mean much for virtual threads.
+ * Now it's just a matter of pushing and popping objects on a per-thread stack.
+ * They are only turned into strings, by {@link Object#toString()}, when {@link #dump()} is called.
+ * Set {@link #RENAME_THREADS} to get thread names back.
+ */
+public final class DiagnosticContext {
+    private DiagnosticContext() {}
+
+    /**
+     * What one thread is doing. Only modified by its thread, but read by others in {@link #dump()}.
+     */
+    private static final class Frames {
+        private volatile Object[] items = new Object[8];
+        private volatile int size;
+
+        void push(Object o) {
+            Object[] items = this.items;
+            if (size == items.length) {
+                this.items = items = Arrays.copyOf(items, size * 2);
+            }
+            items[size] = o;
+            size++;
+        }
+
+        void pop() {
+            items[--size] = null;
+        }
+
+        List<String> describe() {
+            int size = this.size;
+            Object[] items = this.items;
+            List<String> r = new ArrayList<>(size);
+            for (int i = 0; i < size && i < items.length; i++) {
+                Object o = items[i];
+                if (o != null) {
+                    try {
+                        r.add(o.toString());
+                    } catch (RuntimeException e) {
+                        // it may have moved on, in which case a request object for example may not be usable anymore
+                        r.add(o.getClass().getName());
+                    }
+                }
+            }
+            return r;
+        }
+    }
+
+    private static final Map<Thread, Frames> ALL = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private static final ThreadLocal<Frames> CURRENT = ThreadLocal.withInitial(() -> {
+        Frames f = new Frames();
+        ALL.put(Thread.currentThread(), f);
+        return f;
+    });
+
+    /**
+     * Records that the current thread starts working on something.
+     * Must be followed by {@link #pop()}, in a {@code finally} block.
+     *
+     * @param what
+     *      describes what's being done through its {@link Object#toString()}, which is only called when needed.
+     */
+    public static void push(Object what) {
+        CURRENT.get().push(what);
+    }
+
+    /**
+     * Records that the current thread is done with what it {@link #push(Object) pushed} last.
+     */
+    public static void pop() {
+        CURRENT.get().pop();
+    }
+
+    /**
+     * What the current thread is doing, outermost first.
+     */
+    public static List<String> current() {
+        return CURRENT.get().describe();
+    }
+
+    /**
+     * What every thread that's doing something is doing, outermost first.
+     */
+    public static Map<Thread, List<String>> dump() {
+        Map<Thread, Frames> all;
+        synchronized (ALL) {
+            all = new LinkedHashMap<>(ALL);
+        }
+        Map<Thread, List<String>> r = new LinkedHashMap<>();
+        all.forEach((t, f) -> {
+            List<String> d = f.describe();
+            if (!d.isEmpty()) {
+                r.put(t, d);
+            }
+        });
+        return r;
+    }
+
+    /**
+     * Whether to also rename threads to reflect what they are doing, as was done before this class existed.
+     */
+    public static /* nonfinal for Jenkins script console */ boolean RENAME_THREADS =
+            Boolean.getBoolean(DiagnosticContext.class.getName() + ".renameThreads");
+}
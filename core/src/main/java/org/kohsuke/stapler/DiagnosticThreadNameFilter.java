@@ -10,7 +10,8 @@ import jakarta.servlet.http.HttpServletRequest;
 import java.io.IOException;
 
 /**
- * {@link Filter} that sets the thread name to reflect the current request being processed.
+ * {@link Filter} that records the current request being processed in the {@link DiagnosticContext},
+ * and if {@link DiagnosticContext#RENAME_THREADS} is set, in the thread name.
  *
  * @author Kohsuke Kawaguchi
  */
@@ -21,12 +22,21 @@ public class DiagnosticThreadNameFilter implements CompatibleFilter {
     @Override
     public void doFilter(ServletRequest req, ServletResponse rsp, FilterChain chain)
             throws IOException, ServletException {
+        HttpServletRequest hreq = (HttpServletRequest) req;
+        if (!DiagnosticContext.RENAME_THREADS) {
+            DiagnosticContext.push(new Handling(hreq));
+            try {
+                chain.doFilter(req, rsp);
+            } finally {
+                DiagnosticContext.pop();
+            }
+            return;
+        }
+
         Thread t = Thread.currentThread();
         final String oldName = t.getName();
         try {
-            HttpServletRequest hreq = (HttpServletRequest) req;
-            t.setName("Handling " + hreq.getMethod() + ' ' + hreq.getRequestURI() + " from " + hreq.getRemoteAddr()
-                    + " : " + oldName);
+            t.setName(new Handling(hreq) + " : " + oldName);
 
             chain.doFilter(req, rsp);
         } finally {
@@ -34,6 +44,13 @@ public class DiagnosticThreadNameFilter implements CompatibleFilter {
         }
     }
 
+    private record Handling(HttpServletRequest req) {
+        @Override
+        public String toString() {
+            return "Handling " + req.getMethod() + ' ' + req.getRequestURI() + " from " + req.getRemoteAddr();
+        }
+    }
+
     @Override
     public void destroy() {}
 }
@@ -0,0 +1,149 @@
+package org.kohsuke.stapler;
+
+import jakarta.servlet.ServletException;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Token-keyed index over {@link MetaClass#dispatchers}.
+ *
+ * <p>
+ * A {@link NameBasedDispatcher} can only ever handle a request whose next token equals its name,
+ * so for any given token the only dispatchers worth trying are those with that exact name plus
+ * everything that isn't name-based ({@code getDynamic}, map/array look-ups, views, etc.)
+ * This class precomputes that merged candidate list per name, retaining the original order
+ * of {@link MetaClass#dispatchers} so that precedence is unchanged.
+ *
+ * @see MetaClass#getDispatchTable()
+ */
+final class DispatchTable {
+    /**
+     * Snapshot of all the dispatchers in the order of preference.
+     */
+    private final Dispatcher[] all;
+
+    /**
+     * Positions in {@link #all} of dispatchers that are not name-based.
+     * Used when the next token doesn't match any name, or when there are no more tokens.
+     */
+    private final int[] fallbacks;
+
+    /**
+     * For each name, positions in {@link #all} of the name-based dispatchers of that name
+     * merged with {@link #fallbacks}, sorted in the order of preference.
+     */
+    private final Map<String, int[]> buckets;
+
+    DispatchTable(List<Dispatcher> dispatchers) {
+        this.all = dispatchers.toArray(new Dispatcher[0]);
+
+        List<Integer> fallbacks = new ArrayList<>();
+        Map<String, List<Integer>> named = new HashMap<>();
+        for (int i = 0; i < all.length; i++) {
+            if (all[i] instanceof NameBasedDispatcher nbd) {
+                named.computeIfAbsent(nbd.name, k -> new ArrayList<>()).add(i);
+            } else {
+                fallbacks.add(i);
+            }
+        }
+
+        this.fallbacks = toArray(fallbacks);
+        this.buckets = new HashMap<>(named.size() * 2);
+        for (Map.Entry<String, List<Integer>> e : named.entrySet()) {
+            buckets.put(e.getKey(), merge(toArray(e.getValue()), this.fallbacks));
+        }
+    }
+
+    /**
+     * Number of dispatchers this table was compiled from.
+     */
+    int size() {
+        return all.length;
+    }
+
+    /**
+     * Returns dispatchers that can possibly handle a request whose next token is the given one,
+     * in the order of preference.
+     *
+     * @param token
+     *      null if there are no more tokens.
+     */
+    List<Dispatcher> candidates(String token) {
+        List<Dispatcher> r = new ArrayList<>();
+        for (int i : positions(token)) {
+            r.add(all[i]);
+        }
+        return r;
+    }
+
+    /**
+     * Tries the candidate dispatchers in the order of preference.
+     *
+     * @return
+     *      the dispatcher that handled the request, or null if none did.
+     */
+    Dispatcher dispatch(RequestImpl req, ResponseImpl rsp, Object node)
+            throws IOException, ServletException, IllegalAccessException, InvocationTargetException {
+        final int idx = req.tokens.idx;
+        for (int i : positions(req.tokens.peek())) {
+            Dispatcher d = all[i];
+            if (d.dispatch(req, rsp, node)) {
+                return d;
+            }
+            if (req.tokens.idx != idx) {
+                // a dispatcher moved the cursor without handling the request,
+                // so the candidates computed for the original token no longer apply
+                return dispatchLinearly(req, rsp, node, i + 1);
+            }
+        }
+        return null;
+    }
+
+    private Dispatcher dispatchLinearly(RequestImpl req, ResponseImpl rsp, Object node, int start)
+            throws IOException, ServletException, IllegalAccessException, InvocationTargetException {
+        for (int i = start; i < all.length; i++) {
+            if (all[i].dispatch(req, rsp, node)) {
+                return all[i];
+            }
+        }
+        return null;
+    }
+
+    private int[] positions(String token) {
+        if (token == null) {
+            return fallbacks;
+        }
+        int[] r = buckets.get(token);
+        return r != null ? r : fallbacks;
+    }
+
+    /**
+     * Merges two sorted arrays.
+     */
+    private static int[] merge(int[] a, int[] b) {
+        int[] r = new int[a.length + b.length];
+        int i = 0, j = 0, k = 0;
+        while (i < a.length && j < b.length) {
+            r[k++] = a[i] < b[j] ? a[i++] : b[j++];
+        }
+        while (i < a.length) {
+            r[k++] = a[i++];
+        }
+        while (j < b.length) {
+            r[k++] = b[j++];
+        }
+        return r;
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        int[] r = new int[list.size()];
+        for (int i = 0; i < r.length; i++) {
+            r[i] = list.get(i);
+        }
+        return r;
+    }
+}
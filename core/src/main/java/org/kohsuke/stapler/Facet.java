@@ -65,6 +65,31 @@ public abstract class Facet {
         dispatchers.add(new IndexViewDispatcher(owner, this));
     }
 
+    /**
+     * Loads the views of the given class ahead of time, so that the first request to render them doesn't have to.
+     * Called from a background thread by {@link WebApp#warmUp(java.util.Collection)}.
+     *
+     * @param warmUp the warm-up in progress, which lists the views
+     * @return the number of views loaded
+     * @see #warmUp(WarmUp, AbstractTearOff)
+     */
+    public int warmUp(WarmUp warmUp, MetaClass owner) throws Exception {
+        return 0;
+    }
+
+    /**
+     * Loads the views with the default extension of the given script loader that are in the folder of its class.
+     */
+    protected int warmUp(WarmUp warmUp, AbstractTearOff<?, ?, ?> scriptLoader) throws Exception {
+        int n = 0;
+        for (String name : warmUp.viewNames(scriptLoader.owner.klass, scriptLoader.getDefaultScriptExtension())) {
+            if (scriptLoader.findScript(name) != null) {
+                n++;
+            }
+        }
+        return n;
+    }
+
     /**
      * Adds {@link Dispatcher}s that do catch-all behaviours like "doDispatch" does.
      */
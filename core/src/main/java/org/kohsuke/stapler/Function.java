@@ -376,6 +376,11 @@ public abstract class Function {
         protected final Method m;
         private volatile MethodHandle handle;
 
+        /**
+         * {@link #handle} adapted to {@code (Object,Object[])Object}.
+         */
+        private volatile MethodHandle invoker;
+
         private volatile String[] names;
 
         MethodFunction(Method m) {
@@ -454,23 +459,24 @@ public abstract class Function {
             return handle;
         }
 
+        private MethodHandle invoker() {
+            if (invoker == null) {
+                invoker = MethodHandleFactory.getSpreadInvoker(m, handle());
+            }
+            return invoker;
+        }
+
         @Override
         public Object invoke(StaplerRequest2 req, StaplerResponse2 rsp, Object o, Object... args)
                 throws IllegalAccessException, InvocationTargetException {
-            Object[] arguments;
-            if (Modifier.isStatic(m.getModifiers())) {
-                arguments = args;
-            } else {
-                arguments = new Object[args.length + 1];
-                arguments[0] = o;
-                System.arraycopy(args, 0, arguments, 1, args.length);
-            }
-            try {
-                return handle().invokeWithArguments(arguments);
-            } catch (WrongMethodTypeException x) {
-                LOGGER.log(Level.WARNING, handle + " failed on " + o + "." + m + Arrays.toString(arguments), x);
-            } catch (Throwable throwable) {
-                throw new InvocationTargetException(throwable);
+            if (args.length == m.getParameterCount()) {
+                try {
+                    return (Object) invoker().invokeExact(o, args);
+                } catch (WrongMethodTypeException x) {
+                    LOGGER.log(Level.WARNING, handle + " failed on " + o + "." + m + Arrays.toString(args), x);
+                } catch (Throwable throwable) {
+                    throw new InvocationTargetException(throwable);
+                }
             }
             return m.invoke(o, args);
         }
@@ -69,8 +69,20 @@ public class MetaClass extends TearOffSupport {
      */
     public final MetaClassLoader classLoader;
 
+    /**
+     * All the {@link Dispatcher}s for this class, in the order of preference.
+     *
+     * <p>
+     * Request dispatching goes through {@link #getDispatchTable()}, which is compiled from this list
+     * once {@link #buildDispatchers()} completes.
+     */
     public final List<Dispatcher> dispatchers = new ArrayList<>();
 
+    /**
+     * Index of {@link #dispatchers} keyed by the URL token.
+     */
+    private volatile DispatchTable dispatchTable;
+
     /**
      * Base metaclass.
      * Note that {@code baseClass.clazz==clazz.getSuperClass()}
@@ -105,6 +117,7 @@ public class MetaClass extends TearOffSupport {
      * via reflection and figures out what URLs are handled by who.
      */
     /*package*/ void buildDispatchers() {
+        this.dispatchTable = null;
         this.dispatchers.clear();
         KlassDescriptor<?> node = new KlassDescriptor(klass);
 
@@ -634,6 +647,21 @@ public class MetaClass extends TearOffSupport {
         if (dispatchersFilter != null) {
             dispatchersFilter.applyOn(this, node.methods, dispatchers);
         }
+
+        this.dispatchTable = new DispatchTable(dispatchers);
+    }
+
+    /**
+     * Gets {@link #dispatchers} compiled into a table that only tries the dispatchers
+     * that can possibly match the next token.
+     */
+    /*package*/ DispatchTable getDispatchTable() {
+        DispatchTable t = dispatchTable;
+        if (t == null || t.size() != dispatchers.size()) {
+            // the list was modified after it was built
+            dispatchTable = t = new DispatchTable(dispatchers);
+        }
+        return t;
     }
 
     private void registerDoToken(KlassDescriptor<?> node) {
@@ -3,7 +3,9 @@ package org.kohsuke.stapler;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 
 /**
  * Implementation detail in Stapler. Do not use from outside.
@@ -24,5 +26,22 @@ public final class MethodHandleFactory {
         }
     }
 
+    /**
+     * Adapts the handle obtained from {@link #get(Method)} to the fixed {@code (Object,Object[])Object} shape,
+     * where the first argument is the receiver (ignored for static methods) and the second the method arguments,
+     * so that it can be called with {@link MethodHandle#invokeExact(Object...)} regardless of the signature.
+     */
+    public static MethodHandle getSpreadInvoker(Method method, MethodHandle handle) {
+        int n = method.getParameterCount();
+        // varargs methods get their trailing array passed as is, like Method.invoke does
+        MethodHandle h = handle.asFixedArity();
+        if (Modifier.isStatic(method.getModifiers())) {
+            h = MethodHandles.dropArguments(h.asType(MethodType.genericMethodType(n)), 0, Object.class);
+        } else {
+            h = h.asType(MethodType.genericMethodType(n + 1));
+        }
+        return h.asSpreader(Object[].class, n);
+    }
+
     private MethodHandleFactory() {}
 }
@@ -33,6 +33,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
 /**
@@ -105,6 +106,21 @@ public class ReflectionUtils {
             // If base and derived are the same type, the method is not overridden by definition
             return false;
         }
+        // this is called on every request from compatibility bridges like Function.invoke,
+        // so remember the answer rather than walking the class hierarchy each time
+        Map<OverrideKey, Boolean> cache = OVERRIDES.get(derived);
+        OverrideKey key = new OverrideKey(base, methodName, List.of(types));
+        Boolean r = cache.get(key);
+        if (r == null) {
+            // IllegalArgumentException is not cached, so that it keeps being reported
+            r = computeOverridden(base, derived, methodName, types);
+            cache.put(key, r);
+        }
+        return r;
+    }
+
+    private static boolean computeOverridden(
+            @NonNull Class<?> base, @NonNull Class<?> derived, @NonNull String methodName, @NonNull Class<?>... types) {
         // If derived is not a subclass or implementor of base, it can't override any method
         // Technically this should also be triggered when base == derived, because it can't override its own method, but
         // the unit tests explicitly test for that as working.
@@ -123,6 +139,22 @@ public class ReflectionUtils {
         return derivedMethod != null && derivedMethod != baseMethod;
     }
 
+    /**
+     * Identifies the method looked up by {@link #isOverridden(Class, Class, String, Class[])}
+     * among those cached for the derived type.
+     */
+    private record OverrideKey(Class<?> base, String methodName, List<Class<?>> types) {}
+
+    /**
+     * Results of {@link #isOverridden(Class, Class, String, Class[])} keyed by the derived type.
+     */
+    private static final ClassValue<Map<OverrideKey, Boolean>> OVERRIDES = new ClassValue<>() {
+        @Override
+        protected Map<OverrideKey, Boolean> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
     /**
      * Calls the given supplier if the method defined on the base type with the given arguments is overridden in the
      * given derived type.
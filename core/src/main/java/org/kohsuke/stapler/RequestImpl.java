@@ -29,9 +29,7 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletRequestWrapper;
 import jakarta.servlet.http.HttpServletResponse;
-import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
-import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.io.UnsupportedEncodingException;
@@ -39,10 +37,8 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.lang.reflect.Type;
 import java.nio.charset.Charset;
-import java.nio.file.Files;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -540,13 +536,12 @@ public class RequestImpl extends HttpServletRequestWrapper implements StaplerReq
             return r; // nothing
         }
 
-        try {
-            new ClassDescriptor(type).loadConstructorParamNames();
+        if (BindingPlan.get(type).hasConstructor()) {
             // use the designated constructor for databinding
             for (int i = 0; i < len; i++) {
                 r.add(bindParameters(type, prefix, i));
             }
-        } catch (NoStaplerConstructorException unused) {
+        } else {
             // no designated data binding constructor. use reflection
             try {
                 for (int i = 0; i < len; i++) {
@@ -593,14 +588,15 @@ public class RequestImpl extends HttpServletRequestWrapper implements StaplerReq
 
     @Override
     public <T> T bindParameters(Class<T> type, String prefix, int index) {
-        String[] names = new ClassDescriptor(type).loadConstructorParamNames();
+        BindingPlan.ConstructorPlan plan = BindingPlan.get(type).getConstructor();
+        String[] names = plan.names;
 
         // the actual arguments to invoke the constructor with.
         Object[] args = new Object[names.length];
 
         // constructor
-        Constructor<T> c = findConstructor(type, names.length);
-        Class[] types = c.getParameterTypes();
+        Constructor<T> c = (Constructor<T>) plan.constructor;
+        Class[] types = plan.types;
 
         // convert parameters
         for (int i = 0; i < names.length; i++) {
@@ -700,30 +696,6 @@ public class RequestImpl extends HttpServletRequestWrapper implements StaplerReq
         }
     }
 
-    private <T> Constructor<T> findConstructor(Class<T> type, int length) {
-        Constructor<?>[] ctrs = type.getConstructors();
-        // one with DataBoundConstructor is the most reliable
-        for (Constructor c : ctrs) {
-            if (c.getAnnotation(DataBoundConstructor.class) != null) {
-                if (c.getParameterTypes().length != length) {
-                    throw new IllegalArgumentException(
-                            c
-                                    + " has @DataBoundConstructor but it doesn't match with your .stapler file. Try clean rebuild");
-                }
-                return c;
-            }
-        }
-        // if not, maybe this was from @stapler-constructor,
-        // so look for the constructor with the expected argument length.
-        // this is not very reliable.
-        for (Constructor c : ctrs) {
-            if (c.getParameterTypes().length == length) {
-                return c;
-            }
-        }
-        throw new IllegalArgumentException(type + " does not have a constructor with " + length + " arguments");
-    }
-
     private static void fill(Object bean, String key, Object value) {
         StringTokenizer tokens = new StringTokenizer(key);
         while (tokens.hasMoreTokens()) {
@@ -992,15 +964,16 @@ public class RequestImpl extends HttpServletRequestWrapper implements StaplerReq
             return actualType.cast(j);
         }
 
-        String[] names = new ClassDescriptor(actualType).loadConstructorParamNames();
+        BindingPlan.ConstructorPlan plan = BindingPlan.get(actualType).getConstructor();
+        String[] names = plan.names;
 
         // the actual arguments to invoke the constructor with.
         Object[] args = new Object[names.length];
 
         // constructor
-        Constructor c = findConstructor(actualType, names.length);
-        Class[] types = c.getParameterTypes();
-        Type[] genTypes = c.getGenericParameterTypes();
+        Constructor c = plan.constructor;
+        Class[] types = plan.types;
+        Type[] genTypes = plan.genericTypes;
 
         // convert parameters
         for (int i = 0; i < names.length; i++) {
@@ -1012,7 +985,7 @@ public class RequestImpl extends HttpServletRequestWrapper implements StaplerReq
             }
         }
 
-        Object o = injectSetters(invokeConstructor(c, args), j, Arrays.asList(names));
+        Object o = injectSetters(invokeConstructor(c, args), j, plan.nameList);
         o = bindResolve(o, j);
 
         return o;
@@ -1035,31 +1008,25 @@ public class RequestImpl extends HttpServletRequestWrapper implements StaplerReq
      *      Properties that are already injected through the constructor, thus not subject of the setter injection.
      */
     private <T> T injectSetters(T r, JSONObject j, Collection<String> exclusions) {
+        BindingPlan plan = BindingPlan.get(r.getClass());
         // try to assign rest of the properties
-        OUTER:
         for (String key : j.keySet()) {
             if (!exclusions.contains(key)) {
                 try {
                     // try field injection first
-                    for (Class c = r.getClass(); c != null; c = c.getSuperclass()) {
+                    Field f = plan.getSetterField(key);
+                    if (f != null) {
                         try {
-                            Field f = c.getDeclaredField(key);
-                            if (f.getAnnotation(DataBoundSetter.class) != null) {
-                                try {
-                                    f.set(r, bindJSON(f.getGenericType(), f.getType(), j.get(key)));
-                                } catch (IllegalAccessException e) {
-                                    LOGGER.warning(IllegalReflectiveAccessLogHandler.get(e));
-                                    f.setAccessible(true);
-                                    f.set(r, bindJSON(f.getGenericType(), f.getType(), j.get(key)));
-                                }
-                                continue OUTER;
-                            }
-                        } catch (NoSuchFieldException e) {
-                            // recurse into parents
+                            f.set(r, bindJSON(f.getGenericType(), f.getType(), j.get(key)));
+                        } catch (IllegalAccessException e) {
+                            LOGGER.warning(IllegalReflectiveAccessLogHandler.get(e));
+                            f.setAccessible(true);
+                            f.set(r, bindJSON(f.getGenericType(), f.getType(), j.get(key)));
                         }
+                        continue;
                     }
 
-                    Method wm = findDataBoundSetter(r.getClass(), key);
+                    Method wm = plan.getSetterMethod(key);
                     if (wm == null) {
                         continue;
                     }
@@ -1100,28 +1067,6 @@ public class RequestImpl extends HttpServletRequestWrapper implements StaplerReq
         throw new IllegalArgumentException(x);
     }
 
-    private Method findDataBoundSetter(Class c, String name) {
-        // look for public setter that has the matching name
-        for (; c != null; c = c.getSuperclass()) {
-            for (Method m : c.getDeclaredMethods()) {
-                if (!Modifier.isPublic(m.getModifiers())
-                        || !m.getName().startsWith("set")
-                        || m.getParameterTypes().length != 1
-                        || !m.isAnnotationPresent(DataBoundSetter.class)) {
-                    continue;
-                }
-
-                String propertyName = Introspector.decapitalize(m.getName().substring(3));
-                if (!name.equals(propertyName)) {
-                    continue; // not the name we are looking for
-                }
-
-                return m;
-            }
-        }
-        return null;
-    }
-
     /**
      * Invoke PostConstruct method from the base class to subtypes.
      */
@@ -1215,15 +1160,11 @@ public class RequestImpl extends HttpServletRequestWrapper implements StaplerReq
         parsedFormData = new HashMap<>();
         parsedFormDataFormFields = new HashMap<>();
         JakartaServletFileUpload<DiskFileItem, DiskFileItemFactory> upload;
-        File tmpDir;
         try {
-            tmpDir = Files.createTempDirectory("jenkins-stapler-uploads").toFile();
+            upload = new JakartaServletDiskFileUpload(UploadSpool.factory());
         } catch (IOException e) {
             throw new ServletException("Error creating temporary directory", e);
         }
-        tmpDir.deleteOnExit();
-        upload = new JakartaServletDiskFileUpload(
-                DiskFileItemFactory.builder().setFile(tmpDir).get());
         upload.setMaxFileCount(FILEUPLOAD_MAX_FILES);
         upload.setMaxFileSize(FILEUPLOAD_MAX_FILE_SIZE);
         upload.setMaxSize(FILEUPLOAD_MAX_SIZE);
@@ -294,17 +294,10 @@ public class ResponseImpl extends HttpServletResponseWrapper implements StaplerR
     @Override
     public void serveExposedBean(StaplerRequest2 req, Object exposedBean, ExportConfig config)
             throws ServletException, IOException {
-        String pad = null;
         Flavor flavor = config.getFlavor();
         setContentType(flavor.contentType);
-        Writer w = getWriter();
 
-        if (flavor == Flavor.JSONP) {
-            pad = req.getParameter("jsonp");
-            if (pad != null) {
-                w.write(pad + '(');
-            }
-        }
+        String pad = flavor == Flavor.JSONP ? req.getParameter("jsonp") : null;
 
         TreePruner pruner;
         String tree = req.getParameter("tree");
@@ -326,7 +319,33 @@ public class ResponseImpl extends HttpServletResponseWrapper implements StaplerR
             }
             pruner = new ByDepth(1 - depth);
         }
-        DataWriter dw = flavor.createDataWriter(exposedBean, w, config);
+
+        if (mode == OutputMode.CHAR) {
+            // too late to write bytes
+            Writer w = getWriter();
+            if (pad != null) {
+                w.write(pad + '(');
+            }
+            writeExposedBean(pruner, flavor.createDataWriter(exposedBean, w, config), exposedBean);
+            if (pad != null) {
+                w.write(')');
+            }
+            w.close();
+        } else {
+            // let the flavor encode by itself if it can, which is cheaper than going through a Writer
+            OutputStream out = getCompressedOutputStream(req);
+            if (pad != null) {
+                out.write((pad + '(').getBytes(StandardCharsets.UTF_8));
+            }
+            writeExposedBean(pruner, flavor.createDataWriter(exposedBean, out, config), exposedBean);
+            if (pad != null) {
+                out.write(')');
+            }
+            out.close();
+        }
+    }
+
+    private void writeExposedBean(TreePruner pruner, DataWriter dw, Object exposedBean) throws IOException {
         if (exposedBean instanceof Object[]) {
             // TODO: extend the contract of DataWriter to capture this
             // TODO: make this work with XML flavor (or at least reject this better)
@@ -338,11 +357,6 @@ public class ResponseImpl extends HttpServletResponseWrapper implements StaplerR
         } else {
             writeOne(pruner, dw, exposedBean);
         }
-
-        if (pad != null) {
-            w.write(')');
-        }
-        w.close();
     }
 
     private void writeOne(TreePruner pruner, DataWriter dw, Object item) throws IOException {
@@ -352,12 +366,21 @@ public class ResponseImpl extends HttpServletResponseWrapper implements StaplerR
 
     @Override
     public OutputStream getCompressedOutputStream(HttpServletRequest req) throws IOException {
-        return getOutputStream();
+        return CompressingOutputStream.create(req, this, getOutputStream());
     }
 
     @Override
     public Writer getCompressedWriter(HttpServletRequest req) throws IOException {
-        return getWriter();
+        if (mode == OutputMode.CHAR) {
+            // too late to put anything between us and the client
+            return getWriter();
+        }
+        CompressingOutputStream.Encoding e = CompressingOutputStream.encodingFor(req, this);
+        if (e == null) {
+            return getWriter();
+        }
+        return new OutputStreamWriter(
+                CompressingOutputStream.create(this, e, getOutputStream()), getCharacterEncoding());
     }
 
     @Override
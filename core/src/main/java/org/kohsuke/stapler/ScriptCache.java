@@ -0,0 +1,244 @@
+package org.kohsuke.stapler;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Compiled view scripts of the {@link CachingScriptLoader}s of one {@link WebApp}, with a bound on the number
+ * of entries.
+ *
+ * <p>
+ * Scripts used to be held by {@link java.lang.ref.SoftReference}s, as Jelly scripts can hold on to
+ * a lot of memory through the last context they ran with. But that meant that they were all dropped at once
+ * when memory got low, to be compiled again right when the system could least afford it.
+ * Now they are held strongly, and the least recently used ones are dropped once there are more than
+ * {@link #MAX_SIZE}, regardless of memory, while the context is cleared once the script has run.
+ * {@link CachingScriptLoader#isPinned(String) Pinned} scripts, such as index views, are kept by their loader instead.
+ *
+ * <p>
+ * Whether a script doesn't exist is cached separately, up to {@link #MAX_NOT_FOUND} entries,
+ * so that looking up nonexistent views, whose names may come from URLs, can neither grow the cache without bound
+ * nor push out scripts that do exist.
+ *
+ * <p>
+ * Lookups don't lock. Once a part of the cache is over its bound, whichever thread gets there first drops
+ * the least recently used entries of that part, so that there's some room again.
+ */
+public final class ScriptCache {
+    /**
+     * Maximum number of scripts to keep, not counting pinned ones.
+     */
+    private static final int MAX_SIZE = Integer.getInteger(ScriptCache.class.getName() + ".maxSize", 10000);
+
+    /**
+     * Maximum number of names of scripts that don't exist to keep.
+     */
+    private static final int MAX_NOT_FOUND = Integer.getInteger(ScriptCache.class.getName() + ".maxNotFound", 10000);
+
+    /**
+     * @param owner
+     *      {@link CachingScriptLoader#cacheKey}, rather than the loader itself, so that entries don't keep
+     *      its class and class loader from being garbage collected.
+     */
+    private record Key(Object owner, String name) {}
+
+    private final Part found;
+    private final Part notFound;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /*package*/ ScriptCache() {
+        this(MAX_SIZE, MAX_NOT_FOUND);
+    }
+
+    /*package for test*/ ScriptCache(int maxSize, int maxNotFound) {
+        found = new Part(maxSize);
+        notFound = new Part(maxNotFound);
+    }
+
+    /**
+     * Looks up what was cached, counting a hit or a miss.
+     *
+     * @return null if nothing was cached, or {@link #NOT_FOUND} if the script was found not to exist.
+     */
+    /*package*/ Object get(CachingScriptLoader<?, ?> loader, String name) {
+        Key k = new Key(loader.cacheKey, name);
+        Object v = found.get(k);
+        if (v == null && notFound.get(k) != null) {
+            v = NOT_FOUND;
+        }
+        if (v != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return v;
+    }
+
+    /**
+     * Caches the script, or {@link #NOT_FOUND}.
+     */
+    /*package*/ void put(CachingScriptLoader<?, ?> loader, String name, Object script) {
+        Key k = new Key(loader.cacheKey, name);
+        if (script == NOT_FOUND) {
+            found.remove(k);
+            notFound.put(k, NOT_FOUND);
+        } else {
+            notFound.remove(k);
+            found.put(k, script);
+        }
+    }
+
+    /*package*/ void remove(CachingScriptLoader<?, ?> loader) {
+        found.removeAll(loader.cacheKey);
+        notFound.removeAll(loader.cacheKey);
+    }
+
+    /**
+     * Counts a hit on something that was cached elsewhere.
+     */
+    /*package*/ void hit() {
+        hits.increment();
+    }
+
+    /**
+     * Counts a miss on something that was cached elsewhere.
+     */
+    /*package*/ void miss() {
+        misses.increment();
+    }
+
+    /**
+     * Records how long it took to load a script after a miss.
+     */
+    /*package*/ void loaded(long nanos) {
+        loadNanos.add(nanos);
+    }
+
+    /**
+     * Drops everything but pinned scripts.
+     */
+    public void clear() {
+        found.entries.clear();
+        notFound.entries.clear();
+    }
+
+    public Statistics getStatistics() {
+        return new Statistics(
+                hits.sum(),
+                misses.sum(),
+                TimeUnit.NANOSECONDS.toMillis(loadNanos.sum()),
+                evictions.sum(),
+                found.entries.size() + notFound.entries.size());
+    }
+
+    /**
+     * Counts since the start, for monitoring.
+     *
+     * @param hits number of lookups answered from the cache, including whether a script doesn't exist
+     * @param misses number of lookups that had to load the script
+     * @param loadTimeMillis total time spent loading scripts on misses
+     * @param evictions number of entries dropped to stay within the bound
+     * @param size number of entries currently cached, found or not, not counting pinned scripts
+     */
+    public record Statistics(long hits, long misses, long loadTimeMillis, long evictions, int size) {}
+
+    private static final class Entry {
+        final Object value;
+
+        /**
+         * {@link Part#clock} as of when this was last used.
+         * Not volatile, as losing an update only makes eviction a little less accurate.
+         */
+        long used;
+
+        Entry(Object value, long used) {
+            this.value = value;
+            this.used = used;
+        }
+    }
+
+    /**
+     * Entries with their own bound.
+     */
+    private final class Part {
+        private final int maxSize;
+        private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+        private final ReentrantLock trimming = new ReentrantLock();
+
+        /**
+         * Ticks before and after every {@link #put}, so that entries used since are newer than those put before,
+         * while lookups only read it, so that they don't contend on it.
+         */
+        private final AtomicLong clock = new AtomicLong();
+
+        Part(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        Object get(Key k) {
+            Entry e = entries.get(k);
+            if (e == null) {
+                return null;
+            }
+            e.used = clock.get();
+            return e.value;
+        }
+
+        void put(Key k, Object v) {
+            entries.put(k, new Entry(v, clock.incrementAndGet()));
+            clock.incrementAndGet();
+            if (entries.size() > maxSize && trimming.tryLock()) {
+                try {
+                    trim();
+                } finally {
+                    trimming.unlock();
+                }
+            }
+        }
+
+        /**
+         * Drops the least recently used entries, leaving some room so that this doesn't happen again
+         * on the next {@link #put}.
+         */
+        private void trim() {
+            record Used(Key key, Entry entry, long used) {}
+            List<Used> all = new ArrayList<>();
+            // as of now, as the sort would break if this changed underneath it
+            entries.forEach((k, e) -> all.add(new Used(k, e, e.used)));
+            int n = all.size() - (maxSize - maxSize / 16);
+            if (n <= 0) {
+                return;
+            }
+            all.sort(Comparator.comparingLong(Used::used));
+            for (Used u : all.subList(0, n)) {
+                if (entries.remove(u.key, u.entry)) {
+                    evictions.increment();
+                }
+            }
+        }
+
+        void remove(Key k) {
+            entries.remove(k);
+        }
+
+        void removeAll(Object owner) {
+            entries.keySet().removeIf(k -> k.owner == owner);
+        }
+    }
+
+    /**
+     * Cached in place of scripts that don't exist.
+     */
+    /*package*/ static final Object NOT_FOUND = new Object();
+}
@@ -33,9 +33,11 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.EOFException;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -48,6 +50,9 @@ import java.net.SocketException;
 import java.net.URL;
 import java.net.URLConnection;
 import java.net.URLDecoder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
@@ -58,16 +63,17 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.Stack;
 import java.util.TimeZone;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import net.sf.json.JSONObject;
 import org.apache.commons.beanutils.ConversionException;
 import org.apache.commons.beanutils.ConvertUtils;
@@ -111,6 +117,12 @@ public class Stapler extends HttpServlet {
      */
     private volatile Map<String, URL> resourcePaths;
 
+    /**
+     * Static resources kept in memory.
+     */
+    private final StaticResourceCache staticResourceCache =
+            new StaticResourceCache(StaticResourceCache.DEFAULT_CAPACITY);
+
     /**
      * Temporarily updates the thread name to reflect the request being processed.
      * On by default for convenience, but for webapps that use filters, use
@@ -143,10 +155,19 @@ public class Stapler extends HttpServlet {
         }
     }
 
+    @Override
+    public void destroy() {
+        UploadSpool.shutdown();
+        super.destroy();
+    }
+
     /**
      * Rebuild the internal cache for static resources.
      */
     public void buildResourcePaths() {
+        staticResourceCache.clear();
+        resourcePathLocaleSelector.clearCache();
+        urlLocaleSelector.clearCache();
         try {
             if (Boolean.getBoolean(Stapler.class.getName() + ".noResourcePathCache")) {
                 resourcePaths = null;
@@ -276,7 +297,7 @@ public class Stapler extends HttpServlet {
      * <p>
      * Hence the need for this tuple.
      */
-    private static final class OpenConnection {
+    /*package for test*/ static final class OpenConnection {
         final URLConnection connection;
         final InputStream stream;
 
@@ -346,6 +367,26 @@ public class Stapler extends HttpServlet {
      * Different subtypes provide different meanings for the 'path' parameter.
      */
     private abstract class LocaleDrivenResourceSelector {
+        /**
+         * Which of the localized variants {@link #open(String, Locale, URL)} settled on,
+         * so that we don't have to probe each variant every time.
+         * An empty value means none of the variants exist, and the fallback is used.
+         */
+        private final Map<LocalizedPath, Optional<URL>> selections = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<LocalizedPath, Optional<URL>> eldest) {
+                return size() > LOCALIZED_RESOURCE_CACHE_SIZE;
+            }
+        };
+
+        private record LocalizedPath(String path, Locale locale) {}
+
+        void clearCache() {
+            synchronized (selections) {
+                selections.clear();
+            }
+        }
+
         /**
          * The 'path' is divided into the base part and the extension, and the locale-specific
          * suffix is inserted to the base portion. {@link #map(String)} is used to convert
@@ -365,6 +406,33 @@ public class Stapler extends HttpServlet {
          *      Used as a fallback.
          */
         OpenConnection open(String path, Locale locale, URL fallback) throws IOException {
+            if (MetaClass.NO_CACHE) {
+                return select(path, locale, fallback, null);
+            }
+
+            LocalizedPath key = new LocalizedPath(path, locale);
+            Optional<URL> selection;
+            synchronized (selections) {
+                selection = selections.get(key);
+            }
+            if (selection != null) {
+                OpenConnection con = openURL(selection.orElse(fallback));
+                if (con != null) {
+                    return con;
+                }
+                // the resource went away since we last looked. look again
+            }
+            return select(path, locale, fallback, key);
+        }
+
+        /**
+         * Probes the localized variants of the resource, from the most specific one.
+         *
+         * @param key
+         *      If non-null, remember what we find under this key.
+         */
+        private OpenConnection select(String path, Locale locale, URL fallback, LocalizedPath key)
+                throws IOException {
             String s = path;
             int idx = s.lastIndexOf('.');
             if (idx < 0) { // no file extension, so no locale switch available
@@ -386,31 +454,38 @@ public class Stapler extends HttpServlet {
             String SUBTAG = "(?:[0-9][0-9a-zA-Z]{3}|[0-9a-zA-Z]{5,8})";
             boolean variantOk = variant.matches("^" + SUBTAG + "(?:[_\\-]" + SUBTAG + ")*$");
 
-            OpenConnection con;
-
             // try locale specific resources first.
+            List<String> candidates = new ArrayList<>(3);
             if (languageOk && countryOk && variantOk) {
-                con = openURL(map(base + '_' + language + '_' + country + '_' + variant + ext));
-                if (con != null) {
-                    return con;
-                }
+                candidates.add(base + '_' + language + '_' + country + '_' + variant + ext);
             }
             if (languageOk && countryOk) {
-                con = openURL(map(base + '_' + language + '_' + country + ext));
-                if (con != null) {
-                    return con;
-                }
+                candidates.add(base + '_' + language + '_' + country + ext);
             }
             if (languageOk) {
-                con = openURL(map(base + '_' + language + ext));
+                candidates.add(base + '_' + language + ext);
+            }
+            for (String candidate : candidates) {
+                URL url = map(candidate);
+                OpenConnection con = openURL(url);
                 if (con != null) {
+                    remember(key, Optional.of(url));
                     return con;
                 }
             }
             // default
+            remember(key, Optional.empty());
             return openURL(fallback);
         }
 
+        private void remember(LocalizedPath key, Optional<URL> selection) {
+            if (key != null) {
+                synchronized (selections) {
+                    selections.put(key, selection);
+                }
+            }
+        }
+
         /**
          * Maps the 'path' into {@link URL}.
          */
@@ -468,14 +543,31 @@ public class Stapler extends HttpServlet {
             return false;
         }
         try {
-            return serveStaticResource(
-                    req,
-                    rsp,
-                    con.stream,
-                    con.getLastModified(),
-                    expiration,
-                    con.connection.getContentLength(),
-                    con.connection.getURL().toString());
+            String url = con.connection.getURL().toString();
+            long lastModified = con.getLastModified();
+            long contentLength = con.connection.getContentLength();
+            StaticResourceCache.Entry e = staticResourceCache.get(url, lastModified, contentLength);
+            if (e == null && staticResourceCache.accepts(lastModified, contentLength)) {
+                byte[] data = con.stream.readNBytes((int) contentLength);
+                if (data.length != contentLength) {
+                    // the resource changed as we read it. serve what we've got but don't remember it
+                    return serveStaticResource(
+                            req, rsp, new ByteArrayInputStream(data), lastModified, expiration, data.length, url);
+                }
+                String mimeType = getMimeType(url);
+                e = staticResourceCache.put(
+                        url, lastModified, data, mimeType, CompressingOutputStream.isCompressible(mimeType));
+            }
+            if (e != null) {
+                return serveCachedResource(req, rsp, e, expiration, url);
+            }
+            File f = toFile(con.connection.getURL());
+            if (f != null && f.isFile()) {
+                // read the file directly, so that we can seek and transfer from its channel.
+                // this also lifts the 2GB limit of URLConnection.getContentLength()
+                return serveStaticResource(req, rsp, new FileInputStream(f), lastModified, expiration, f.length(), url);
+            }
+            return serveStaticResource(req, rsp, con.stream, lastModified, expiration, contentLength, url);
         } finally {
             con.close();
         }
@@ -569,35 +661,8 @@ public class Stapler extends HttpServlet {
             String fileName)
             throws IOException {
         try {
-            { // send out Last-Modified, or check If-Modified-Since
-                if (lastModified != 0) {
-                    String since = req.getHeader("If-Modified-Since");
-                    SimpleDateFormat format = HTTP_DATE_FORMAT.get();
-                    if (since != null) {
-                        try {
-                            long ims = format.parse(since).getTime();
-                            if (lastModified < ims + 1000) {
-                                // +1000 because date header is second-precision and Java has milli-second precision
-                                rsp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
-                                return true;
-                            }
-                        } catch (ParseException e) {
-                            // just ignore and serve the content
-                        } catch (NumberFormatException e) {
-                            // trying to locate a bug with Jetty
-                            getServletContext().log("Error parsing [" + since + "]", e);
-                            throw e;
-                        }
-                    }
-
-                    String lastModifiedStr = format.format(new Date(lastModified));
-                    rsp.setHeader("Last-Modified", lastModifiedStr);
-                    if (expiration <= 0) {
-                        rsp.setHeader("Expires", lastModifiedStr);
-                    } else {
-                        rsp.setHeader("Expires", format.format(new Date(new Date().getTime() + expiration)));
-                    }
-                }
+            if (sendLastModified(req, rsp, lastModified, expiration, true)) {
+                return true;
             }
 
             rsp.setHeader("Accept-Ranges", "bytes"); // advertize that we support the range header
@@ -610,49 +675,64 @@ public class Stapler extends HttpServlet {
             // a comprehensive discussion on this topic
             rsp.setHeader("X-Content-Type-Options", "nosniff");
 
-            // somewhat limited implementation of the partial GET
+            // files can be read from any position without reading everything in front
+            FileChannel channel = in instanceof FileInputStream fis ? fis.getChannel() : null;
+            long base = channel != null ? channel.position() : 0;
+
             String range = req.getHeader("Range");
             if (range != null
                     && contentLength != -1) { // I'm lazy and only implementing this for known content length case
-                if (range.startsWith("bytes=")) {
-                    range = range.substring(6);
-                    Matcher m = RANGE_SPEC.matcher(range);
-                    if (m.matches()) {
-                        long s = Long.parseLong(m.group(1));
-                        long e = !m.group(2).isEmpty()
-                                ? Long.parseLong(m.group(2)) + 1 // range set is inclusive
-                                : contentLength; // unspecified value means "all the way to the end"
-                        e = Math.min(e, contentLength);
-
-                        // ritual for responding to a partial GET
-                        rsp.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
-                        rsp.setHeader(
-                                "Content-Range",
-                                "bytes " + s + "-" + (e - 1) + '/' + contentLength); // end is inclusive.
-
-                        // prepare to send the partial content
-                        DataInputStream dis = new DataInputStream(in);
-                        long toSkip = s, thisSkip;
-                        while (toSkip > 0
-                                && (thisSkip = dis.skipBytes((int) Math.min(toSkip, Integer.MAX_VALUE))) > 0) {
-                            toSkip -= thisSkip;
-                        }
-                        if (toSkip > 0) {
-                            throw new IOException("skipBytes failure (" + toSkip + " of " + s + " bytes unskipped)");
-                        }
-                        in = new TruncatedInputStream(in, e - s);
-                        contentLength = Math.min(e - s, contentLength);
+                List<ByteRange> ranges = ByteRange.parse(range, contentLength);
+                // if the Range header doesn't look like what we can handle (ranges==null),
+                // pretend as if we didn't understand it, instead of doing a proper error reporting
+                if (ranges != null && ranges.isEmpty()) {
+                    rsp.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    rsp.setHeader("Content-Range", "bytes */" + contentLength);
+                    return true;
+                }
+                if (ranges != null && ranges.size() == 1) {
+                    ByteRange r = ranges.get(0);
+
+                    // ritual for responding to a partial GET
+                    rsp.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                    rsp.setHeader("Content-Range", r.toContentRange(contentLength));
+
+                    // prepare to send the partial content
+                    if (channel != null) {
+                        rsp.setHeader("Content-Length", Long.toString(r.length()));
+                        OutputStream out = rsp.getOutputStream();
+                        transfer(channel, base + r.start(), r.length(), out);
+                        out.close();
+                        return true;
                     }
-                    // if the Range header doesn't look like what we can handle,
-                    // pretend as if we didn't understand it, instead of doing a proper error reporting
+                    DataInputStream dis = new DataInputStream(in);
+                    long toSkip = r.start(), thisSkip;
+                    while (toSkip > 0 && (thisSkip = dis.skipBytes((int) Math.min(toSkip, Integer.MAX_VALUE))) > 0) {
+                        toSkip -= thisSkip;
+                    }
+                    if (toSkip > 0) {
+                        throw new IOException(
+                                "skipBytes failure (" + toSkip + " of " + r.start() + " bytes unskipped)");
+                    }
+                    in = new TruncatedInputStream(in, r.length());
+                    contentLength = r.length();
+                }
+                if (ranges != null && ranges.size() > 1 && channel != null) {
+                    serveByteRanges(rsp, channel, base, ranges, contentLength, mimeType);
+                    return true;
                 }
+                // multiple ranges out of a stream that we can't rewind. sending the whole thing is allowed
             }
 
             if (contentLength != -1) {
                 rsp.setHeader("Content-Length", Long.toString(contentLength));
             }
             OutputStream out = rsp.getOutputStream();
-            in.transferTo(out);
+            if (channel != null) {
+                transfer(channel, base, contentLength != -1 ? contentLength : channel.size() - base, out);
+            } else {
+                in.transferTo(out);
+            }
             out.close();
             return true;
         } finally {
@@ -661,9 +741,158 @@ public class Stapler extends HttpServlet {
     }
 
     /**
-     * Strings like "5-300", "0-900", or "100-"
+     * Sends out Last-Modified, or checks If-Modified-Since.
+     *
+     * @param checkModifiedSince
+     *      false if the request has already been checked through other means, such as entity tags.
+     * @return
+     *      true if the client has an up-to-date copy, and we've already responded with 304.
+     */
+    private boolean sendLastModified(
+            HttpServletRequest req,
+            StaplerResponse2 rsp,
+            long lastModified,
+            long expiration,
+            boolean checkModifiedSince) {
+        if (lastModified != 0) {
+            String since = checkModifiedSince ? req.getHeader("If-Modified-Since") : null;
+            SimpleDateFormat format = HTTP_DATE_FORMAT.get();
+            if (since != null) {
+                try {
+                    long ims = format.parse(since).getTime();
+                    if (lastModified < ims + 1000) {
+                        // +1000 because date header is second-precision and Java has milli-second precision
+                        rsp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                        return true;
+                    }
+                } catch (ParseException e) {
+                    // just ignore and serve the content
+                } catch (NumberFormatException e) {
+                    // trying to locate a bug with Jetty
+                    getServletContext().log("Error parsing [" + since + "]", e);
+                    throw e;
+                }
+            }
+
+            String lastModifiedStr = format.format(new Date(lastModified));
+            rsp.setHeader("Last-Modified", lastModifiedStr);
+            if (expiration <= 0) {
+                rsp.setHeader("Expires", lastModifiedStr);
+            } else {
+                rsp.setHeader("Expires", format.format(new Date(new Date().getTime() + expiration)));
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Serves a static resource from {@link StaticResourceCache}.
+     */
+    private boolean serveCachedResource(
+            HttpServletRequest req, StaplerResponse2 rsp, StaticResourceCache.Entry e, long expiration, String url)
+            throws IOException {
+        if (req.getHeader("Range") != null) {
+            // partial GET is rare enough that it's not worth a separate code path
+            return serveStaticResource(
+                    req, rsp, new ByteArrayInputStream(e.data), e.lastModified, expiration, e.data.length, url);
+        }
+
+        boolean gzip = e.gzipped != null
+                && !CompressingOutputStream.DISABLED
+                && CompressingOutputStream.negotiate(req.getHeader("Accept-Encoding"))
+                        == CompressingOutputStream.Encoding.GZIP;
+        String etag = gzip ? e.gzipEtag : e.etag;
+        if (e.gzipped != null) {
+            rsp.addHeader("Vary", "Accept-Encoding");
+        }
+
+        // If-None-Match takes precedence over If-Modified-Since
+        String ifNoneMatch = req.getHeader("If-None-Match");
+        if (ifNoneMatch != null && e.matches(ifNoneMatch)) {
+            rsp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            rsp.setHeader("ETag", etag);
+            return true;
+        }
+        if (sendLastModified(req, rsp, e.lastModified, expiration, ifNoneMatch == null)) {
+            return true;
+        }
+
+        rsp.setHeader("ETag", etag);
+        rsp.setHeader("Accept-Ranges", "bytes");
+        rsp.setContentType(e.contentType);
+        rsp.setHeader("X-Content-Type-Options", "nosniff");
+
+        byte[] body = e.data;
+        if (gzip) {
+            rsp.setHeader("Content-Encoding", "gzip");
+            body = e.gzipped;
+        }
+        rsp.setHeader("Content-Length", Integer.toString(body.length));
+        OutputStream out = rsp.getOutputStream();
+        out.write(body);
+        out.close();
+        return true;
+    }
+
+    /**
+     * Sends multiple ranges of a file as {@code multipart/byteranges}.
+     * The ranges are in order and don't overlap, as {@link ByteRange#parse} coalesces them,
+     * so this never sends more than the file and the part headers.
+     */
+    private void serveByteRanges(
+            StaplerResponse2 rsp,
+            FileChannel channel,
+            long base,
+            List<ByteRange> ranges,
+            long contentLength,
+            String mimeType)
+            throws IOException {
+        String boundary =
+                Long.toHexString(ThreadLocalRandom.current().nextLong()) + Long.toHexString(System.nanoTime());
+        byte[][] headers = new byte[ranges.size()][];
+        byte[] trailer = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        long length = trailer.length;
+        for (int i = 0; i < headers.length; i++) {
+            ByteRange r = ranges.get(i);
+            headers[i] = ((i == 0 ? "--" : "\r\n--") + boundary + "\r\n"
+                            + "Content-Type: " + mimeType + "\r\n"
+                            + "Content-Range: " + r.toContentRange(contentLength) + "\r\n"
+                            + "\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            length += headers[i].length + r.length();
+        }
+
+        rsp.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        rsp.setContentType("multipart/byteranges; boundary=" + boundary);
+        rsp.setHeader("Content-Length", Long.toString(length));
+        OutputStream out = rsp.getOutputStream();
+        for (int i = 0; i < headers.length; i++) {
+            out.write(headers[i]);
+            transfer(channel, base + ranges.get(i).start(), ranges.get(i).length(), out);
+        }
+        out.write(trailer);
+        out.close();
+    }
+
+    /**
+     * Copies a portion of the file to the output.
+     *
+     * <p>
+     * The servlet API doesn't give us the socket channel, so this doesn't get the true zero-copy
+     * behavior, but {@link FileChannel#transferTo} still avoids reading through the data we don't send,
+     * and lets the JDK pick the most efficient way to move the rest.
      */
-    private static final Pattern RANGE_SPEC = Pattern.compile("([\\d]+)-([\\d]*)");
+    private static void transfer(FileChannel channel, long position, long count, OutputStream out) throws IOException {
+        WritableByteChannel target = Channels.newChannel(out);
+        while (count > 0) {
+            long n = channel.transferTo(position, count, target);
+            if (n <= 0) {
+                throw new EOFException("File truncated while serving it (" + count + " bytes missing)");
+            }
+            position += n;
+            count -= n;
+        }
+    }
 
     private String getMimeType(String fileName) {
         if (fileName.startsWith("mime-type:")) {
@@ -796,13 +1025,12 @@ public class Stapler extends HttpServlet {
         MetaClass metaClass = webApp.getMetaClass(node);
 
         try {
-            for (Dispatcher d : metaClass.dispatchers) {
-                if (d.dispatch(req, rsp, node)) {
-                    if (LOGGER.isLoggable(Level.FINER)) {
-                        LOGGER.finer("Handled by " + d);
-                    }
-                    return true;
+            Dispatcher d = metaClass.getDispatchTable().dispatch(req, rsp, node);
+            if (d != null) {
+                if (LOGGER.isLoggable(Level.FINER)) {
+                    LOGGER.finer("Handled by " + d);
                 }
+                return true;
             }
         } catch (IllegalAccessException e) {
             // this should never really happen
@@ -1101,6 +1329,12 @@ public class Stapler extends HttpServlet {
 
     private static final Logger LOGGER = Logger.getLogger(Stapler.class.getName());
 
+    /**
+     * How many (path, locale) combinations each {@link LocaleDrivenResourceSelector} remembers.
+     */
+    private static final int LOCALIZED_RESOURCE_CACHE_SIZE =
+            Integer.getInteger(Stapler.class.getName() + ".localizedResourceCacheSize", 4096);
+
     /**
      * Get raw servlet path (decoded in TokenList).
      */
@@ -221,12 +221,25 @@ public interface StaplerResponse2 extends HttpServletResponse {
     }
 
     /**
+     * Works like {@link #getOutputStream()} but compresses the data with the content encoding
+     * that the client accepts, if any.
+     *
+     * <p>
+     * The {@code Content-Encoding} header is set when the first few kilobytes are written,
+     * so the content type needs to be set by then. Small responses and content types that are
+     * already compressed, such as images, are sent as-is.
+     * This only compresses if enabled with the {@code org.kohsuke.stapler.CompressingOutputStream.enabled}
+     * system property; otherwise this is the same as {@link #getOutputStream()}.
+     *
      * @deprecated use {@link #getOutputStream}
      */
     @Deprecated
     OutputStream getCompressedOutputStream(HttpServletRequest req) throws IOException;
 
     /**
+     * {@link Writer} version of {@link #getCompressedOutputStream(HttpServletRequest)},
+     * which uses the character encoding of the response.
+     *
      * @deprecated use {@link #getWriter}
      */
     @Deprecated
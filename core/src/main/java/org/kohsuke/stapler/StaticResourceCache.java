@@ -0,0 +1,200 @@
+package org.kohsuke.stapler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * In-memory cache of small static resources served by {@link Stapler#serveStaticResource}.
+ *
+ * <p>
+ * Adjuncts and {@code /static/} assets are requested on every page load, and reading them
+ * out of jar files each time is the bulk of the cost of serving them. This cache holds their bytes,
+ * along with a precompressed variant and an entity tag, in a map bounded by the total number of bytes,
+ * evicting the least recently used resources first.
+ *
+ * <p>
+ * Entries are keyed by the URL of the resource, and only used while the last modified timestamp and
+ * the length of the resource still match, so that a resource updated in place is picked up.
+ */
+final class StaticResourceCache {
+    /**
+     * Default budget, which can be overridden by the system property. 0 disables the cache.
+     */
+    static final long DEFAULT_CAPACITY =
+            Long.getLong(StaticResourceCache.class.getName() + ".capacity", 16L * 1024 * 1024);
+
+    /**
+     * Budget of the cache in bytes, including the compressed variants.
+     */
+    private final long capacity;
+
+    /**
+     * Resources bigger than this are not cached, so that a few large ones don't push out everything else.
+     */
+    private final long maxEntrySize;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Total size of {@link #entries}.
+     */
+    private long size;
+
+    StaticResourceCache(long capacity) {
+        this.capacity = capacity;
+        this.maxEntrySize = capacity / 8;
+    }
+
+    /**
+     * Can a resource with the given characteristics be cached at all?
+     */
+    boolean accepts(long lastModified, long contentLength) {
+        // without these, we can't tell if the cached copy is stale
+        return capacity > 0
+                && !MetaClass.NO_CACHE
+                && lastModified > 0
+                && contentLength >= 0
+                && contentLength <= maxEntrySize;
+    }
+
+    /**
+     * Gets the cached copy of the resource, if it's still current.
+     */
+    synchronized Entry get(String url, long lastModified, long contentLength) {
+        Entry e = entries.get(url);
+        if (e == null) {
+            return null;
+        }
+        if (e.lastModified != lastModified || e.data.length != contentLength) {
+            remove(url);
+            return null;
+        }
+        return e;
+    }
+
+    /**
+     * Caches a resource.
+     *
+     * @param compressible
+     *      whether the content type of the resource benefits from a compressed variant.
+     */
+    Entry put(String url, long lastModified, byte[] data, String contentType, boolean compressible) {
+        // compression and hashing is done outside the lock
+        Entry e = new Entry(
+                data,
+                compressible && data.length >= CompressingOutputStream.THRESHOLD ? gzip(data) : null,
+                lastModified,
+                contentType);
+        synchronized (this) {
+            remove(url);
+            entries.put(url, e);
+            size += e.size();
+            var itr = entries.values().iterator();
+            while (size > capacity && itr.hasNext()) {
+                size -= itr.next().size();
+                itr.remove();
+            }
+        }
+        return e;
+    }
+
+    synchronized void clear() {
+        entries.clear();
+        size = 0;
+    }
+
+    /*package for test*/ synchronized long size() {
+        return size;
+    }
+
+    /*package for test*/ synchronized boolean contains(String url) {
+        return entries.containsKey(url);
+    }
+
+    private void remove(String url) {
+        Entry old = entries.remove(url);
+        if (old != null) {
+            size -= old.size();
+        }
+    }
+
+    /**
+     * @return
+     *      null if compression doesn't make it any smaller.
+     */
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(data.length / 2);
+        try (GZIPOutputStream out = new GZIPOutputStream(baos)) {
+            out.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // can't happen
+        }
+        return baos.size() < data.length ? baos.toByteArray() : null;
+    }
+
+    /**
+     * Cached resource.
+     */
+    static final class Entry {
+        final byte[] data;
+
+        /**
+         * {@link #data} in gzip, or null if there's no compressed variant.
+         */
+        final byte[] gzipped;
+
+        final long lastModified;
+        final String contentType;
+
+        /**
+         * Strong entity tags of the identity and the gzip representations.
+         * They need to be different, as the two are not byte-for-byte identical.
+         */
+        final String etag, gzipEtag;
+
+        Entry(byte[] data, byte[] gzipped, long lastModified, String contentType) {
+            this.data = data;
+            this.gzipped = gzipped;
+            this.lastModified = lastModified;
+            this.contentType = contentType;
+            String hash = hash(data);
+            this.etag = '"' + hash + '"';
+            this.gzipEtag = '"' + hash + "-gzip\"";
+        }
+
+        long size() {
+            return data.length + (gzipped != null ? gzipped.length : 0);
+        }
+
+        /**
+         * Does the value of the {@code If-None-Match} header match either representation?
+         */
+        boolean matches(String ifNoneMatch) {
+            for (String tag : ifNoneMatch.split(",")) {
+                tag = tag.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2); // If-None-Match uses the weak comparison
+                }
+                if (tag.equals("*") || tag.equals(etag) || tag.equals(gzipEtag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static String hash(byte[] data) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+                return HexFormat.of().formatHex(digest, 0, 16);
+            } catch (NoSuchAlgorithmException e) {
+                throw new AssertionError(e); // every JVM has SHA-256
+            }
+        }
+    }
+}
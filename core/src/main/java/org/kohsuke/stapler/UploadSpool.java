@@ -0,0 +1,147 @@
+package org.kohsuke.stapler;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.apache.commons.fileupload2.core.DiskFileItemFactory;
+import org.apache.commons.io.FileCleaningTracker;
+import org.apache.commons.io.FileDeleteStrategy;
+
+/**
+ * Directory where the file parts of multipart requests that are too large to keep in memory go,
+ * shared by all requests.
+ *
+ * <p>
+ * Files are deleted once their {@link org.apache.commons.fileupload2.core.FileItem} is garbage collected,
+ * and as a last resort, files that have been around for longer than {@link #MAX_AGE} and are no longer in use
+ * are swept when the next request comes in, in case they were left behind.
+ */
+final class UploadSpool {
+    private UploadSpool() {}
+
+    private static File dir;
+
+    private static Tracker tracker;
+
+    private static final AtomicLong nextSweep = new AtomicLong();
+
+    /**
+     * Creates the factory for the parts of one request.
+     */
+    static DiskFileItemFactory factory() throws IOException {
+        File dir = dir();
+        Tracker tracker = tracker();
+        long now = System.currentTimeMillis();
+        long next = nextSweep.get();
+        if (now >= next && nextSweep.compareAndSet(next, now + SWEEP_INTERVAL)) {
+            sweep(dir.toPath(), tracker, now);
+        }
+        return DiskFileItemFactory.builder()
+                .setFile(dir)
+                .setFileCleaningTracker(tracker)
+                .get();
+    }
+
+    private static synchronized File dir() throws IOException {
+        if (dir == null || !dir.isDirectory()) {
+            dir = Files.createTempDirectory("jenkins-stapler-uploads").toFile();
+            dir.deleteOnExit(); // once, not for every request
+        }
+        return dir;
+    }
+
+    /*package for test*/ static synchronized Tracker tracker() {
+        if (tracker == null) {
+            tracker = new Tracker();
+        }
+        return tracker;
+    }
+
+    /**
+     * Lets the thread that deletes files go away once it has deleted those still tracked,
+     * as the web application is shutting down. Should uploads still come in, tracking starts over.
+     */
+    static synchronized void shutdown() {
+        if (tracker != null) {
+            tracker.exitWhenFinished();
+            tracker = null;
+        }
+    }
+
+    /**
+     * Deletes files that are older than {@link #MAX_AGE} and no longer in use.
+     */
+    /*package for test*/ static void sweep(Path dir, Tracker tracker, long now) {
+        tracker.forgetUnused();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path f : files) {
+                if (Files.getLastModifiedTime(f).toMillis() < now - MAX_AGE && !tracker.isInUse(f)) {
+                    Files.deleteIfExists(f);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Failed to clean up " + dir, e);
+        }
+    }
+
+    /**
+     * {@link FileCleaningTracker} that also tells which files are still in use,
+     * which are those whose marker hasn't been garbage collected yet.
+     */
+    /*package for test*/ static final class Tracker extends FileCleaningTracker {
+        private final Map<Path, WeakReference<Object>> markers = new ConcurrentHashMap<>();
+
+        @Override
+        public void track(File file, Object marker, FileDeleteStrategy deleteStrategy) {
+            remember(file.toPath(), marker);
+            super.track(file, marker, deleteStrategy);
+        }
+
+        @Override
+        public void track(Path file, Object marker, FileDeleteStrategy deleteStrategy) {
+            remember(file, marker);
+            super.track(file, marker, deleteStrategy);
+        }
+
+        @Override
+        public void track(String path, Object marker, FileDeleteStrategy deleteStrategy) {
+            remember(Path.of(path), marker);
+            super.track(path, marker, deleteStrategy);
+        }
+
+        private void remember(Path file, Object marker) {
+            markers.put(file.toAbsolutePath(), new WeakReference<>(marker));
+        }
+
+        boolean isInUse(Path file) {
+            WeakReference<Object> ref = markers.get(file.toAbsolutePath());
+            return ref != null && ref.get() != null;
+        }
+
+        /**
+         * Forgets files whose markers are gone, which the superclass deletes.
+         */
+        void forgetUnused() {
+            markers.values().removeIf(ref -> ref.get() == null);
+        }
+    }
+
+    /**
+     * How old an uploaded file that's no longer in use gets before it's deleted, in milliseconds.
+     */
+    private static final long MAX_AGE =
+            Long.getLong(UploadSpool.class.getName() + ".maxAge", TimeUnit.HOURS.toMillis(24));
+
+    private static final long SWEEP_INTERVAL = TimeUnit.HOURS.toMillis(1);
+
+    private static final Logger LOGGER = Logger.getLogger(UploadSpool.class.getName());
+}
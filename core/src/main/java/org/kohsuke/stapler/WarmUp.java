@@ -0,0 +1,325 @@
+package org.kohsuke.stapler;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.kohsuke.stapler.lang.Klass;
+import org.kohsuke.stapler.lang.KlassNavigator;
+
+/**
+ * Builds {@link MetaClass}es and loads their views in the background, so that the first requests after a start
+ * don't have to.
+ *
+ * <p>
+ * Starting from the given classes, this follows the types that URLs can reach, which are
+ * those returned by getters and those of public fields, and for each of them, builds its {@link MetaClass}
+ * and lets every {@link Facet} {@link Facet#warmUp(WarmUp, MetaClass) load its views}.
+ * This is done on a bounded {@link ForkJoinPool} that goes away once done,
+ * whose threads are associated with the {@link WebApp}, as in {@link WebApp#getCurrent()}, as views may need it
+ * to compile.
+ *
+ * <p>
+ * Progress can be watched through the counts, for example to only start taking traffic once {@link #isDone()}.
+ *
+ * @see WebApp#warmUp(Collection)
+ */
+public final class WarmUp {
+    private final WebApp webApp;
+    private final ForkJoinPool pool;
+    private final Set<Class<?>> seen = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Entries of the jars views were looked for in, keyed by the URL of the jar, so that each is only listed once.
+     */
+    private final Map<String, NavigableSet<String>> jars = new ConcurrentHashMap<>();
+
+    /**
+     * Number of tasks submitted but not yet done, plus one until {@link #start()}.
+     */
+    private final AtomicInteger pending = new AtomicInteger(1);
+
+    private final AtomicInteger classes = new AtomicInteger();
+    private final AtomicInteger views = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+    private final CompletableFuture<WarmUp> future = new CompletableFuture<>();
+    private final long startTime = System.nanoTime();
+
+    WarmUp(WebApp webApp) {
+        this.webApp = webApp;
+        ClassLoader cl = webApp.getClassLoader();
+        this.pool = new ForkJoinPool(
+                THREADS,
+                p -> {
+                    ForkJoinWorkerThread t = new Worker(p, webApp);
+                    t.setName("Stapler warm-up #" + t.getPoolIndex());
+                    t.setContextClassLoader(cl);
+                    return t;
+                },
+                null,
+                false);
+    }
+
+    /**
+     * Warms up the given class, and those reachable from it.
+     */
+    void add(Class<?> c) {
+        while (c.isArray()) {
+            c = c.getComponentType();
+        }
+        ClassLoader cl = c.getClassLoader();
+        if (cl == null || cl == ClassLoader.getPlatformClassLoader()) {
+            return; // nothing to serve in JDK classes, nor primitives
+        }
+        if (seen.size() >= MAX_CLASSES || !seen.add(c)) {
+            return;
+        }
+        Class<?> _c = c;
+        submit(() -> warmUp(_c));
+    }
+
+    /**
+     * Warms up the classes listed in the given resources, one class name per line,
+     * such as those written by annotation processors in {@code META-INF}.
+     */
+    void addIndex(ClassLoader cl, String index) {
+        submit(() -> {
+            for (URL url : Collections.list(cl.getResources(index))) {
+                try (BufferedReader r =
+                        new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = r.readLine()) != null) {
+                        line = line.trim();
+                        if (line.isEmpty() || line.startsWith("#")) {
+                            continue;
+                        }
+                        try {
+                            add(Class.forName(line, false, cl));
+                        } catch (ClassNotFoundException | LinkageError e) {
+                            LOGGER.log(Level.FINE, "Failed to load " + line + " listed in " + url, e);
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Called once everything given upfront was added, so that this can complete.
+     */
+    void start() {
+        finished();
+    }
+
+    private interface Task {
+        void run() throws Exception;
+    }
+
+    private void submit(Task task) {
+        pending.incrementAndGet();
+        pool.execute(() -> {
+            try {
+                task.run();
+            } catch (Exception | LinkageError e) {
+                failures.incrementAndGet();
+                LOGGER.log(Level.FINE, "Failed to warm up", e);
+            } finally {
+                finished();
+            }
+        });
+    }
+
+    private void finished() {
+        if (pending.decrementAndGet() == 0) {
+            pool.shutdown();
+            jars.clear();
+            LOGGER.log(Level.FINE, "Warmed up {0} classes and {1} views in {2}ms", new Object[] {
+                classes, views, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime)
+            });
+            future.complete(this);
+        }
+    }
+
+    private void warmUp(Class<?> c) throws Exception {
+        // follow the reachable types first, so that they are warmed up even if views of this one fail to load
+        if (c.getSuperclass() != null) {
+            add(c.getSuperclass());
+        }
+        for (Method m : c.getMethods()) {
+            if (m.getName().startsWith("get")) {
+                add(m.getReturnType());
+            }
+        }
+        for (Field f : c.getFields()) {
+            add(f.getType());
+        }
+
+        MetaClass mc = webApp.getMetaClass(c);
+        for (Facet f : webApp.facets) {
+            views.addAndGet(f.warmUp(this, mc));
+        }
+        classes.incrementAndGet();
+    }
+
+    /**
+     * Lists the views of the given class that have the given extension, as far as the class loader lets us.
+     * Only views right in the folder of the class are listed, not those in subfolders.
+     */
+    public Collection<String> viewNames(Klass<?> klass, String extension) throws IOException {
+        if (klass.navigator != KlassNavigator.JAVA) {
+            return Collections.emptySet();
+        }
+        Class<?> c = klass.toJavaClass();
+        ClassLoader cl = c.getClassLoader();
+        if (cl == null) {
+            return Collections.emptySet();
+        }
+        String dir = c.getName().replace('.', '/').replace('$', '/') + '/';
+
+        Set<String> names = new TreeSet<>();
+        Enumeration<URL> e = cl.getResources(dir);
+        while (e.hasMoreElements()) {
+            URL url = e.nextElement();
+            switch (url.getProtocol()) {
+                case "file" -> {
+                    String[] files;
+                    try {
+                        files = new File(url.toURI()).list();
+                    } catch (URISyntaxException | IllegalArgumentException x) {
+                        continue;
+                    }
+                    if (files != null) {
+                        for (String f : files) {
+                            if (f.endsWith(extension)) {
+                                names.add(f);
+                            }
+                        }
+                    }
+                }
+                case "jar" -> {
+                    for (String name : jarEntries(url).subSet(dir, false, dir + Character.MAX_VALUE, false)) {
+                        if (name.endsWith(extension) && name.indexOf('/', dir.length()) < 0) {
+                            names.add(name.substring(dir.length()));
+                        }
+                    }
+                }
+                default -> {
+                    // can't list, so views are loaded on first use as usual
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Lists the entries of the jar the given URL points into, or gets them from the last time.
+     */
+    private NavigableSet<String> jarEntries(URL url) throws IOException {
+        JarURLConnection con = (JarURLConnection) url.openConnection();
+        try {
+            return jars.computeIfAbsent(con.getJarFileURL().toString(), u -> {
+                con.setUseCaches(false);
+                try (JarFile jar = con.getJarFile()) {
+                    NavigableSet<String> entries = new TreeSet<>();
+                    for (JarEntry entry : Collections.list(jar.entries())) {
+                        entries.add(entry.getName());
+                    }
+                    return entries;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Number of classes warmed up so far.
+     */
+    public int getClassCount() {
+        return classes.get();
+    }
+
+    /**
+     * Number of views loaded so far.
+     */
+    public int getViewCount() {
+        return views.get();
+    }
+
+    /**
+     * Number of classes or indices that couldn't be warmed up, which are then taken care of on first use as usual.
+     */
+    public int getFailureCount() {
+        return failures.get();
+    }
+
+    /**
+     * Number of classes known to be left to warm up, which grows as more are found.
+     */
+    public int getPendingCount() {
+        return Math.max(0, pending.get());
+    }
+
+    public boolean isDone() {
+        return future.isDone();
+    }
+
+    /**
+     * Completes when everything was warmed up.
+     */
+    public CompletableFuture<WarmUp> getFuture() {
+        return future;
+    }
+
+    /**
+     * Thread that warms up the classes of the given {@link WebApp}.
+     */
+    /*package*/ static final class Worker extends ForkJoinWorkerThread {
+        final WebApp webApp;
+
+        Worker(ForkJoinPool pool, WebApp webApp) {
+            super(pool);
+            this.webApp = webApp;
+        }
+    }
+
+    /**
+     * Number of threads used to warm up.
+     */
+    private static final int THREADS = Integer.getInteger(
+            WarmUp.class.getName() + ".threads",
+            Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    /**
+     * Maximum number of classes to warm up, beyond which they are taken care of on first use as usual.
+     */
+    private static final int MAX_CLASSES = Integer.getInteger(WarmUp.class.getName() + ".maxClasses", 10000);
+
+    private static final Logger LOGGER = Logger.getLogger(WarmUp.class.getName());
+}
@@ -28,6 +28,7 @@ import io.jenkins.servlet.ServletContextWrapper;
 import jakarta.servlet.Filter;
 import jakarta.servlet.ServletConfig;
 import jakarta.servlet.ServletContext;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.List;
@@ -95,6 +96,58 @@ public class WebApp {
      */
     private final ServletContext servletContext;
 
+    /**
+     * Starts building the {@link MetaClass}es of the given classes, and those reachable from them, and loading
+     * their views, in the background.
+     *
+     * <p>
+     * Otherwise, this happens on the first request that needs them, which makes the first requests after a start
+     * a lot slower than the rest.
+     *
+     * @return
+     *      the progress of the warm-up, which {@link WarmUp#isDone() is done} once everything was loaded.
+     */
+    public WarmUp warmUp(Collection<? extends Class<?>> roots) {
+        WarmUp w = new WarmUp(this);
+        for (Class<?> c : roots) {
+            w.add(c);
+        }
+        return start(w);
+    }
+
+    /**
+     * Like {@link #warmUp(Collection)}, for the classes listed in the given resources, one class name per line.
+     * These are typically the index files that annotation processors write into {@code META-INF},
+     * such as {@code META-INF/exposed.stapler-beans} or {@code META-INF/annotations/...}.
+     */
+    public WarmUp warmUp(ClassLoader classLoader, String... indices) {
+        WarmUp w = new WarmUp(this);
+        for (String index : indices) {
+            w.addIndex(classLoader, index);
+        }
+        return start(w);
+    }
+
+    private WarmUp start(WarmUp w) {
+        warmUp = w;
+        w.start();
+        return w;
+    }
+
+    /**
+     * The last warm-up that was started, if any.
+     */
+    public WarmUp getWarmUp() {
+        return warmUp;
+    }
+
+    /**
+     * Where the views of this webapp are cached once compiled.
+     */
+    public ScriptCache getScriptCache() {
+        return scriptCache;
+    }
+
     /**
      * @deprecated Unused?
      */
@@ -180,6 +233,10 @@ public class WebApp {
      */
     private JsonInErrorMessageSanitizer jsonInErrorMessageSanitizer;
 
+    private volatile WarmUp warmUp;
+
+    private final ScriptCache scriptCache = new ScriptCache();
+
     public WebApp(ServletContext context) {
         this.servletContext = context;
         this.context = context != null ? ServletContextWrapper.fromJakartServletContext(context) : null;
@@ -332,6 +389,7 @@ public class WebApp {
     public synchronized void clearMetaClassCache() {
         // No ClassValue.clear() method, so need to just null it out instead.
         classMap = null;
+        scriptCache.clear();
     }
 
     void addStaplerServlet(String servletName, Stapler servlet) {
@@ -367,10 +425,15 @@ public class WebApp {
     }
 
     /**
-     * Gets the current {@link WebApp} that the calling thread is associated with.
+     * Gets the current {@link WebApp} that the calling thread is associated with,
+     * which is that of the request being handled, or that being {@link #warmUp(Collection) warmed up}.
      */
     public static WebApp getCurrent() {
-        return Stapler.getCurrent().getWebApp();
+        Stapler s = Stapler.getCurrent();
+        if (s == null && Thread.currentThread() instanceof WarmUp.Worker w) {
+            return w.webApp;
+        }
+        return s.getWebApp();
     }
 
     public FunctionList.Filter getFilterForGetMethods() {
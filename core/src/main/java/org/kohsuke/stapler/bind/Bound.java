@@ -90,42 +90,57 @@ public abstract class Bound implements HttpResponse {
      * @return the URL for the standalone proxy script of this {@link org.kohsuke.stapler.bind.Bound}, starting with the context path
      */
     public final String getProxyScriptURL(String variableName) {
-        final String methodsList =
-                String.join(",", getBoundJavaScriptUrlNames(getTarget().getClass()));
+        final String methodsList = JS_METHODS.get(getTarget().getClass()).commaSeparated();
         // The URL looks like it has some redundant elements, but only if it's not a WithWellKnownURL
         return Stapler.getCurrentRequest2().getContextPath() + BoundObjectTable.SCRIPT_PREFIX + getURL() + "?var="
                 + variableName + "&methods=" + methodsList;
     }
 
-    private static Set<String> getBoundJavaScriptUrlNames(Class<?> clazz) {
-        Set<String> names = new HashSet<>();
-        for (Method m : clazz.getMethods()) {
-            if (m.getName().startsWith("js")) {
-                names.add(camelize(m.getName().substring(2)));
-            } else {
-                JavaScriptMethod a = m.getAnnotation(JavaScriptMethod.class);
-                if (a != null) {
-                    if (a.name().length == 0) {
-                        names.add(m.getName());
-                    } else {
-                        names.addAll(Arrays.asList(a.name()));
+    /**
+     * The JavaScript-callable methods of a class, in the forms they are used in.
+     *
+     * @param names names of the methods
+     * @param commaSeparated {@code names} as used in the proxy script URL
+     * @param quoted {@code names} sorted and quoted, as used in the proxy script
+     */
+    /*package for test*/ record JsMethods(Set<String> names, String commaSeparated, String quoted) {
+        static JsMethods of(Class<?> clazz) {
+            Set<String> names = new HashSet<>();
+            for (Method m : clazz.getMethods()) {
+                if (m.getName().startsWith("js")) {
+                    names.add(camelize(m.getName().substring(2)));
+                } else {
+                    JavaScriptMethod a = m.getAnnotation(JavaScriptMethod.class);
+                    if (a != null) {
+                        if (a.name().length == 0) {
+                            names.add(m.getName());
+                        } else {
+                            names.addAll(Arrays.asList(a.name()));
+                        }
                     }
                 }
             }
+            return new JsMethods(Set.copyOf(names), String.join(",", names), quote(names.toArray(String[]::new)));
         }
-        return names;
     }
 
+    /*package for test*/ static final ClassValue<JsMethods> JS_METHODS = new ClassValue<>() {
+        @Override
+        protected JsMethods computeValue(Class<?> type) {
+            return JsMethods.of(type);
+        }
+    };
+
     /**
      * Returns a collection of all JS bound methods of the target's type.
      * @return a collection of all JS bound methods of the target's type
      */
     public final Set<String> getBoundJavaScriptUrlNames() {
-        return getBoundJavaScriptUrlNames(getTarget().getClass());
+        return new HashSet<>(JS_METHODS.get(getTarget().getClass()).names());
     }
 
     public static String getProxyScript(String url, Class<?> clazz) {
-        return getProxyScript(url, getBoundJavaScriptUrlNames(clazz).toArray(String[]::new));
+        return getProxyScript(url, JS_METHODS.get(clazz).quoted());
     }
 
     /**
@@ -136,12 +151,19 @@ public abstract class Bound implements HttpResponse {
      * @return the Stapler proxy script for the specified URL and method names
      */
     public static String getProxyScript(String url, String[] methods) {
+        return getProxyScript(url, quote(methods));
+    }
+
+    private static String getProxyScript(String url, String methodNamesList) {
         final String crumb = WebApp.getCurrent().getCrumbIssuer().issueCrumb();
-        final String methodNamesList = Arrays.stream(methods)
+        return "makeStaplerProxy('" + escapeQuotedString(url) + "','" + crumb + "',[" + methodNamesList + "])";
+    }
+
+    private static String quote(String[] methods) {
+        return Arrays.stream(methods)
                 .sorted()
                 .map(it -> "'" + escapeQuotedString(it) + "'")
                 .collect(Collectors.joining(","));
-        return "makeStaplerProxy('" + escapeQuotedString(url) + "','" + crumb + "',[" + methodNamesList + "])";
     }
 
     private static String escapeQuotedString(String singleQuotedJsValue) {
@@ -30,9 +30,14 @@ import java.io.PrintWriter;
 import java.io.Serializable;
 import java.time.Duration;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Queue;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.kohsuke.stapler.Ancestor;
@@ -195,11 +200,49 @@ public class BoundObjectTable implements StaplerFallback {
 
     /**
      * Per-session table that remembers all the bound instances.
+     *
+     * <p>
+     * Binding and resolving don't lock. Stale entries are swept from the oldest end of the table
+     * as new ones are added, which mostly works because every {@link StrongRef} lives for the same length of time,
+     * so they expire in the order they were bound. As that isn't always so, for example for tables restored
+     * along with their session, each sweep also checks a few more entries, picking up where the last one left off.
      */
     public static class Table implements Serializable {
-        private final Map<String, Ref> entries = new HashMap<>();
+        private static final long serialVersionUID = 9124480290077054684L; // as computed before it was declared
+
+        private final Map<String, Ref> entries = new ConcurrentHashMap<>();
+
+        /**
+         * IDs in the order they were bound. May contain IDs that have already been released.
+         */
+        private final Queue<String> order = new ConcurrentLinkedQueue<>();
+
+        /**
+         * Approximate size of {@link #order}, which is expensive to count.
+         */
+        private final AtomicInteger orderSize = new AtomicInteger();
+
+        /**
+         * Only one thread sweeps at a time. Others just skip it.
+         */
+        private final AtomicBoolean sweeping = new AtomicBoolean();
+
+        /**
+         * Where the last sweep stopped looking past the head of {@link #order}. Only used while {@link #sweeping}.
+         */
+        private transient Iterator<String> cursor;
+
+        private final int maxEntries;
 
-        private synchronized Bound add(Ref ref) {
+        public Table() {
+            this(MAX_ENTRIES);
+        }
+
+        Table(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        /*package for test*/ Bound add(Ref ref) {
             final Object target = ref.get();
             if (target instanceof WithWellKnownURL w) {
                 String url = w.getWellKnownUrl();
@@ -210,43 +253,123 @@ public class BoundObjectTable implements StaplerFallback {
                 return new WellKnownObjectHandle(url, w);
             }
 
-            // Before adding a new entry, clean up any old ones:
-            var it = entries.entrySet().iterator();
-            while (it.hasNext()) {
-                var entry = it.next();
-                if (!entry.getValue().valid()) {
-                    LOGGER.fine(() -> "removing stale " + entry.getKey() + ": "
-                            + entry.getValue().get());
-                    it.remove();
-                }
-            }
-
             final String id = UUID.randomUUID().toString();
             entries.put(id, ref);
+            order.add(id);
+            orderSize.incrementAndGet();
             LOGGER.fine(() -> String.format("%s binding %s for %s", toString(), target, id));
 
-            return new Bound() {
-                @Override
-                public void release() {
-                    Table.this.release(id);
+            sweep();
+
+            return new Handle(id, target);
+        }
+
+        /*package for test*/ final class Handle extends Bound {
+            final String id;
+            private final Object target;
+
+            Handle(String id, Object target) {
+                this.id = id;
+                this.target = target;
+            }
+
+            @Override
+            public void release() {
+                Table.this.release(id);
+            }
+
+            @Override
+            public String getURL() {
+                return Stapler.getCurrentRequest2().getContextPath() + PREFIX + id;
+            }
+
+            @Override
+            public Object getTarget() {
+                return target;
+            }
+
+            @Override
+            public void generateResponse(StaplerRequest2 req, StaplerResponse2 rsp, Object node)
+                    throws IOException, ServletException {
+                rsp.sendRedirect2(getURL());
+            }
+        }
+
+        /**
+         * Removes expired entries, and the oldest ones if there are too many.
+         */
+        private void sweep() {
+            if (!sweeping.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                String id;
+                while ((id = order.peek()) != null) {
+                    Ref ref = entries.get(id);
+                    if (ref != null && ref.valid() && entries.size() <= maxEntries) {
+                        break; // everything after this is mostly newer
+                    }
+                    order.poll();
+                    orderSize.decrementAndGet();
+                    if (ref != null && entries.remove(id, ref)) {
+                        final String removed = id;
+                        LOGGER.fine(() -> "removing stale " + removed + ": " + ref.get());
+                    }
                 }
 
-                @Override
-                public String getURL() {
-                    return Stapler.getCurrentRequest2().getContextPath() + PREFIX + id;
+                // but not always, so also look past the head, a few entries at a time
+                for (int i = 0; i < SWEEP_AHEAD; i++) {
+                    if (cursor == null || !cursor.hasNext()) {
+                        cursor = order.iterator();
+                        if (!cursor.hasNext()) {
+                            break;
+                        }
+                    }
+                    String next = cursor.next();
+                    Ref ref = entries.get(next);
+                    if (ref == null || !ref.valid()) {
+                        cursor.remove();
+                        orderSize.decrementAndGet();
+                        if (ref != null && entries.remove(next, ref)) {
+                            LOGGER.fine(() -> "removing stale " + next + ": " + ref.get());
+                        }
+                    }
                 }
 
-                @Override
-                public Object getTarget() {
-                    return target;
+                // released IDs stay in the queue until they reach its head. don't let them pile up behind a live entry
+                if (orderSize.get() > 2 * entries.size() + 64) {
+                    order.removeIf(x -> !entries.containsKey(x));
+                    orderSize.set(order.size());
                 }
+            } finally {
+                sweeping.set(false);
+            }
+        }
 
-                @Override
-                public void generateResponse(StaplerRequest2 req, StaplerResponse2 rsp, Object node)
-                        throws IOException, ServletException {
-                    rsp.sendRedirect2(getURL());
+        /*package for test*/ int size() {
+            return entries.size();
+        }
+
+        /**
+         * Rebuilds the table, as tables serialized by older versions only have {@link #entries},
+         * which may not even be concurrent, and so that a sweep in progress isn't restored.
+         */
+        private Object readResolve() {
+            Table t = new Table(maxEntries > 0 ? maxEntries : MAX_ENTRIES);
+            if (order != null) {
+                for (String id : order) {
+                    t.restore(id, entries.get(id));
                 }
-            };
+            }
+            entries.forEach(t::restore);
+            return t;
+        }
+
+        private void restore(String id, Ref ref) {
+            if (ref != null && entries.putIfAbsent(id, ref) == null) {
+                order.add(id);
+                orderSize.incrementAndGet();
+            }
         }
 
         public Object getDynamic(String id) {
@@ -262,7 +385,7 @@ public class BoundObjectTable implements StaplerFallback {
             LOGGER.fine(() -> "releasing " + id + ": " + (ref != null ? ref.get() : null));
         }
 
-        private synchronized Object resolve(String id) {
+        private Object resolve(String id) {
             Ref e = entries.get(id);
             if (e == null) {
                 LOGGER.fine(() -> toString() + " doesn't have binding for " + id);
@@ -350,6 +473,17 @@ public class BoundObjectTable implements StaplerFallback {
             BoundObjectTable.class.getName() + ".EXPIRATION_TIME",
             Duration.ofDays(1).toMillis());
 
+    /**
+     * How many objects a session can have bound at once. Beyond this, the oldest ones are dropped.
+     */
+    private static final int MAX_ENTRIES =
+            Integer.getInteger(BoundObjectTable.class.getName() + ".MAX_ENTRIES", 10000);
+
+    /**
+     * How many entries past the head of the table each sweep checks.
+     */
+    private static final int SWEEP_AHEAD = 4;
+
     public static final String PREFIX = "/$stapler/bound/";
     static final String SCRIPT_PREFIX = "/$stapler/bound/script";
 
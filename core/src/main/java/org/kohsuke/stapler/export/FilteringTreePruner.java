@@ -32,4 +32,9 @@ class FilteringTreePruner extends TreePruner {
 
         return child;
     }
+
+    @Override
+    Property[] select(Model<?> model, Property[] properties) {
+        return base.select(model, properties);
+    }
 }
@@ -23,8 +23,13 @@
 
 package org.kohsuke.stapler.export;
 
+import edu.umd.cs.findbugs.annotations.NonNull;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 import org.kohsuke.stapler.StaplerResponse2;
 
 /**
@@ -38,12 +43,22 @@ public enum Flavor {
         public DataWriter createDataWriter(Object bean, Writer w, ExportConfig config) throws IOException {
             return new JSONDataWriter(w, config);
         }
+
+        @Override
+        public DataWriter createDataWriter(Object bean, OutputStream out, ExportConfig config) throws IOException {
+            return new JSONStreamDataWriter(out, config);
+        }
     },
     JSONP("text/javascript;charset=UTF-8") {
         @Override
         public DataWriter createDataWriter(Object bean, Writer w, ExportConfig config) throws IOException {
             return new JSONDataWriter(w, config);
         }
+
+        @Override
+        public DataWriter createDataWriter(Object bean, OutputStream out, ExportConfig config) throws IOException {
+            return new JSONStreamDataWriter(out, config);
+        }
     },
     PYTHON("text/x-python;charset=UTF-8") {
         @Override
@@ -82,4 +97,91 @@ public enum Flavor {
     }
 
     public abstract DataWriter createDataWriter(Object bean, Writer w, ExportConfig config) throws IOException;
+
+    /**
+     * Creates a {@link DataWriter} that writes to the given stream in UTF-8.
+     *
+     * <p>
+     * Everything is written to the stream by the time the outermost object or array ends,
+     * but the stream is left open.
+     * Flavors that can encode by themselves override this to avoid going through a {@link Writer}.
+     */
+    public DataWriter createDataWriter(Object bean, OutputStream out, ExportConfig config) throws IOException {
+        Writer w = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        return new FlushingDataWriter(createDataWriter(bean, w, config), w);
+    }
+
+    /**
+     * Flushes a {@link Writer} when the outermost object or array ends.
+     */
+    private static final class FlushingDataWriter implements DataWriter {
+        private final DataWriter core;
+        private final Writer w;
+        private int depth;
+
+        FlushingDataWriter(DataWriter core, Writer w) {
+            this.core = core;
+            this.w = w;
+        }
+
+        @Override
+        public @NonNull ExportConfig getExportConfig() {
+            return core.getExportConfig();
+        }
+
+        @Override
+        public void name(String name) throws IOException {
+            core.name(name);
+        }
+
+        @Override
+        public void valuePrimitive(Object v) throws IOException {
+            core.valuePrimitive(v);
+        }
+
+        @Override
+        public void value(String v) throws IOException {
+            core.value(v);
+        }
+
+        @Override
+        public void valueNull() throws IOException {
+            core.valueNull();
+        }
+
+        @Override
+        public void startArray() throws IOException {
+            depth++;
+            core.startArray();
+        }
+
+        @Override
+        public void endArray() throws IOException {
+            core.endArray();
+            end();
+        }
+
+        @Override
+        public void type(Type expected, Class actual) throws IOException {
+            core.type(expected, actual);
+        }
+
+        @Override
+        public void startObject() throws IOException {
+            depth++;
+            core.startObject();
+        }
+
+        @Override
+        public void endObject() throws IOException {
+            core.endObject();
+            end();
+        }
+
+        private void end() throws IOException {
+            if (--depth == 0) {
+                w.flush();
+            }
+        }
+    }
 }
@@ -0,0 +1,271 @@
+package org.kohsuke.stapler.export;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+/**
+ * JSON writer that encodes UTF-8 by itself, straight into a byte buffer.
+ *
+ * <p>
+ * Produces the same output as {@link JSONDataWriter}, but without going through a {@link java.io.Writer},
+ * and without creating a string for every name and value it writes.
+ * Property names come pre-encoded from {@link Property#jsonName}.
+ * Unlike {@link JSONDataWriter}, names and {@link Character} values are quoted and escaped,
+ * so that the result is always valid JSON.
+ *
+ * <p>
+ * The buffer is sent to the stream when it fills up and when the outermost object or array ends.
+ */
+final class JSONStreamDataWriter implements DataWriter {
+    private final OutputStream out;
+    private final ExportConfig config;
+
+    private final byte[] buf;
+    private int pos;
+
+    private boolean needComma;
+    private int indent;
+    /**
+     * Number of objects and arrays we are in.
+     */
+    private int depth;
+
+    private String classAttr;
+
+    JSONStreamDataWriter(OutputStream out, ExportConfig config) {
+        this(out, config, 8192);
+    }
+
+    private JSONStreamDataWriter(OutputStream out, ExportConfig config, int bufferSize) {
+        this.out = out;
+        this.buf = new byte[bufferSize];
+        this.config = config;
+        indent = config.isPrettyPrint() ? 0 : -1;
+    }
+
+    @Override
+    public @NonNull ExportConfig getExportConfig() {
+        return config;
+    }
+
+    @Override
+    public void name(String name) throws IOException {
+        comma();
+        string(name);
+        colon();
+    }
+
+    /**
+     * Writes the name of the property, which is already encoded.
+     */
+    void name(Property p) throws IOException {
+        comma();
+        write(p.jsonName);
+        colon();
+    }
+
+    private void colon() throws IOException {
+        if (indent < 0) {
+            write(':');
+        } else {
+            write(' ');
+            write(':');
+            write(' ');
+        }
+        needComma = false;
+    }
+
+    private void comma() throws IOException {
+        if (needComma) {
+            write(',');
+            indent();
+        }
+        needComma = true;
+    }
+
+    private void indent() throws IOException {
+        if (indent >= 0) {
+            write('\n');
+            for (int i = indent * 2; i > 0; i--) {
+                write(' ');
+            }
+        }
+    }
+
+    @Override
+    public void valuePrimitive(Object v) throws IOException {
+        comma();
+        if (v instanceof Character) {
+            string(v.toString());
+        } else {
+            ascii(v.toString());
+        }
+    }
+
+    @Override
+    public void value(String v) throws IOException {
+        comma();
+        string(v);
+    }
+
+    @Override
+    public void valueNull() throws IOException {
+        comma();
+        ascii("null");
+    }
+
+    private void open(char symbol) throws IOException {
+        comma();
+        write(symbol);
+        needComma = false;
+        depth++;
+        if (indent >= 0) {
+            indent++;
+        }
+        indent();
+    }
+
+    private void close(char symbol) throws IOException {
+        if (indent >= 0) {
+            indent--;
+        }
+        indent();
+        needComma = true;
+        write(symbol);
+        if (--depth == 0) {
+            flush();
+        }
+    }
+
+    @Override
+    public void startArray() throws IOException {
+        open('[');
+    }
+
+    @Override
+    public void endArray() throws IOException {
+        close(']');
+    }
+
+    @Override
+    public void type(Type expected, Class actual) throws IOException {
+        classAttr = config.getClassAttribute().print(expected, actual);
+    }
+
+    @Override
+    public void startObject() throws IOException {
+        open('{');
+
+        if (classAttr != null) {
+            name(CLASS_PROPERTY_NAME);
+            value(classAttr);
+            classAttr = null;
+        }
+    }
+
+    @Override
+    public void endObject() throws IOException {
+        close('}');
+    }
+
+    /**
+     * Writes a quoted and escaped string.
+     */
+    private void string(String v) throws IOException {
+        write('"');
+        int len = v.length();
+        for (int i = 0; i < len; i++) {
+            if (pos + 6 > buf.length) {
+                flush();
+            }
+            char c = v.charAt(i);
+            if (c >= 0x20 && c < 0x7F && c != '"' && c != '\\') {
+                // the most common case, which needs no escaping nor encoding
+                buf[pos++] = (byte) c;
+            } else if (Character.isISOControl(c) || Character.isSurrogate(c)) {
+                // see JSONDataWriter.value for why these are escaped
+                buf[pos++] = '\\';
+                buf[pos++] = 'u';
+                buf[pos++] = HEX[(c >> 12) & 0xf];
+                buf[pos++] = HEX[(c >> 8) & 0xf];
+                buf[pos++] = HEX[(c >> 4) & 0xf];
+                buf[pos++] = HEX[c & 0xf];
+            } else if (c == '"' || c == '\\') {
+                buf[pos++] = '\\';
+                buf[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                buf[pos++] = (byte) (0xC0 | (c >> 6));
+                buf[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else {
+                // surrogates are escaped above, so everything else fits in three bytes
+                buf[pos++] = (byte) (0xE0 | (c >> 12));
+                buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buf[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        write('"');
+    }
+
+    /**
+     * Writes a string that is known to consist only of ASCII characters that need no escaping.
+     */
+    private void ascii(String s) throws IOException {
+        int len = s.length();
+        if (pos + len > buf.length) {
+            flush();
+            if (len > buf.length) {
+                for (int i = 0; i < len; i++) {
+                    write(s.charAt(i));
+                }
+                return;
+            }
+        }
+        for (int i = 0; i < len; i++) {
+            buf[pos++] = (byte) s.charAt(i);
+        }
+    }
+
+    private void write(char c) throws IOException {
+        if (pos == buf.length) {
+            flush();
+        }
+        buf[pos++] = (byte) c;
+    }
+
+    private void write(byte[] b) throws IOException {
+        if (pos + b.length > buf.length) {
+            flush();
+            if (b.length > buf.length) {
+                out.write(b);
+                return;
+            }
+        }
+        System.arraycopy(b, 0, buf, pos, b.length);
+        pos += b.length;
+    }
+
+    private void flush() throws IOException {
+        out.write(buf, 0, pos);
+        pos = 0;
+    }
+
+    /**
+     * Encodes a property name as it appears in JSON, including the quotes.
+     */
+    static byte[] encodeName(String name) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(name.length() + 2);
+        JSONStreamDataWriter w = new JSONStreamDataWriter(baos, new ExportConfig(), 16);
+        try {
+            w.string(name);
+            w.flush();
+        } catch (IOException e) {
+            throw new AssertionError(e); // ByteArrayOutputStream doesn't throw
+        }
+        return baos.toByteArray();
+    }
+
+    private static final byte[] HEX = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
+}
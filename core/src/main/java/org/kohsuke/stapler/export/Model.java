@@ -32,10 +32,13 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -69,6 +72,14 @@ public class Model<T> {
 
     private final Set<String> propertyNames = new HashSet<>();
 
+    /**
+     * Properties that each {@link NamedPathPruner} tree selects from this model. See {@link TreePruner#select}.
+     * Kept here rather than on the trees, as those are shared by all {@link ModelBuilder}s,
+     * and weakly, so that trees no longer among the recently parsed ones can go.
+     */
+    /*package*/ final Map<NamedPathPruner.Tree, Property[]> selections =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
     /*package*/ Model(
             ModelBuilder parent, Class<T> type, @CheckForNull Class<?> propertyOwner, @Nullable String property)
             throws NotExportableException {
@@ -235,7 +246,7 @@ public class Model<T> {
             superModel.writeNestedObjectTo(object, new FilteringTreePruner(HAS_PROPERTY_NAME, pruner), writer);
         }
 
-        for (Property p : properties) {
+        for (Property p : pruner.select(this, properties)) {
             p.writeTo(object, pruner, writer);
         }
     }
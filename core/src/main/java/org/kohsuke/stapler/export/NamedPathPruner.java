@@ -23,6 +23,8 @@
 
 package org.kohsuke.stapler.export;
 
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.regex.Pattern;
@@ -36,11 +38,60 @@ public final class NamedPathPruner extends TreePruner {
         final Map<String, Tree> children = new TreeMap<>();
         Range range = Range.ALL;
 
+        /**
+         * The pruner for this subtree, created on demand.
+         */
+        private volatile NamedPathPruner pruner;
+
+        NamedPathPruner pruner() {
+            NamedPathPruner p = pruner;
+            if (p == null) {
+                pruner = p = new NamedPathPruner(this);
+            }
+            return p;
+        }
+
+        Property[] select(Model<?> model, Property[] properties) {
+            if (children.containsKey("*")) {
+                return properties;
+            }
+            return model.selections.computeIfAbsent(this, t -> Arrays.stream(properties)
+                    .filter(p -> p.merge || children.containsKey(p.name))
+                    .toArray(Property[]::new));
+        }
+
         public @Override String toString() {
             return children.toString();
         }
     }
 
+    static final int CACHE_SIZE = Integer.getInteger(NamedPathPruner.class.getName() + ".cacheSize", 256);
+
+    /**
+     * Recently parsed trees, since the same specs tend to be requested over and over again.
+     * The trees are never modified once parsed, so they can be shared.
+     */
+    private static final Map<String, Tree> PARSED = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Tree> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    static Tree parseCached(String spec) throws IllegalArgumentException {
+        synchronized (PARSED) {
+            Tree t = PARSED.get(spec);
+            if (t != null) {
+                return t;
+            }
+        }
+        Tree t = parse(spec); // parse outside the lock. Racing threads just parse the same thing twice
+        synchronized (PARSED) {
+            PARSED.put(spec, t);
+        }
+        return t;
+    }
+
     // Simple recursive descent parser:
     static Tree parse(String spec) throws IllegalArgumentException {
         Reader r = new Reader(spec);
@@ -189,7 +240,7 @@ public final class NamedPathPruner extends TreePruner {
      * @throws IllegalArgumentException if the syntax is incorrect
      */
     public NamedPathPruner(String spec) throws IllegalArgumentException {
-        this(parse(spec));
+        this(parseCached(spec));
     }
 
     private NamedPathPruner(Tree tree) {
@@ -205,7 +256,12 @@ public final class NamedPathPruner extends TreePruner {
         if (subtree == null) {
             subtree = tree.children.get("*");
         }
-        return subtree != null ? new NamedPathPruner(subtree) : null;
+        return subtree != null ? subtree.pruner() : null;
+    }
+
+    @Override
+    Property[] select(Model<?> model, Property[] properties) {
+        return tree.select(model, properties);
     }
 
     public @Override Range getRange() {
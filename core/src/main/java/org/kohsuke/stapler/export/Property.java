@@ -29,12 +29,10 @@ import java.lang.reflect.Array;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Type;
 import java.net.URL;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
@@ -57,6 +55,11 @@ public abstract class Property implements Comparable<Property> {
      */
     public final String name;
 
+    /**
+     * {@link #name} as written by {@link JSONStreamDataWriter}.
+     */
+    final byte[] jsonName;
+
     final ModelBuilder owner;
     /**
      * Visibility depth level of this property.
@@ -94,6 +97,7 @@ public abstract class Property implements Comparable<Property> {
         this.parent = parent;
         this.owner = parent.parent;
         this.name = exported.name().length() > 1 ? exported.name() : name;
+        this.jsonName = JSONStreamDataWriter.encodeName(this.name);
         this.type = type;
         int v = exported.visibility();
         if (v == 0) {
@@ -156,11 +160,24 @@ public abstract class Property implements Comparable<Property> {
                 }
             }
         } else {
-            writer.name(name);
+            writeName(writer);
             writeValue(type, d, child, writer);
         }
     }
 
+    /**
+     * Writes the name of this property, letting writers that can use {@link #jsonName} do so.
+     */
+    private void writeName(DataWriter writer) throws IOException {
+        if (writer instanceof JSONStreamDataWriter w) {
+            w.name(this);
+        } else if (writer instanceof RollbackDataWriter w) {
+            w.name(this);
+        } else {
+            writer.name(name);
+        }
+    }
+
     /**
      * @deprecated as of 1.139
      */
@@ -176,17 +193,30 @@ public abstract class Property implements Comparable<Property> {
         writeValue(expected, value, pruner, writer, writer.getExportConfig().isSkipIfFail());
     }
 
-    private void writeBuffered(Type expected, Object value, TreePruner pruner, DataWriter writer) throws IOException {
-        BufferedDataWriter buffer = new BufferedDataWriter(writer.getExportConfig());
+    /**
+     * Writes one item of a collection, dropping it if it fails to export.
+     *
+     * @param buffer
+     *      Holds what's written until the outermost item completes, so that a failing item can be rolled back.
+     * @param writer
+     *      The writer of the collection. If this is not the buffer, the collection is the outermost one,
+     *      and the item gets sent to it as soon as it's complete.
+     */
+    private void writeBuffered(
+            Type expected, Object value, TreePruner pruner, RollbackDataWriter buffer, DataWriter writer)
+            throws IOException {
+        int mark = buffer.mark();
         try {
             writeValue(expected, value, pruner, buffer, true);
-            buffer.finished();
         } catch (IOException x) {
             if (x.getCause() instanceof InvocationTargetException) {
                 LOGGER.log(Level.WARNING, "skipping export of " + value, x);
             }
+            buffer.rollback(mark);
+        }
+        if (buffer != writer) {
+            buffer.flush();
         }
-        buffer.commit(writer);
     }
 
     /**
@@ -220,36 +250,39 @@ public abstract class Property implements Comparable<Property> {
             Class act = c.getComponentType();
             if (act != null) { // array
                 Range r = pruner.getRange();
+                RollbackDataWriter buffer = RollbackDataWriter.of(writer);
                 writer.startArray();
                 if (value instanceof Object[]) {
                     // typical case
                     for (Object item : r.apply((Object[]) value)) {
-                        writeBuffered(act, item, pruner, writer);
+                        writeBuffered(act, item, pruner, buffer, writer);
                     }
                 } else {
                     // more generic case
                     int len = Math.min(r.max, Array.getLength(value));
                     for (int i = r.min; i < len; i++) {
-                        writeBuffered(act, Array.get(value, i), pruner, writer);
+                        writeBuffered(act, Array.get(value, i), pruner, buffer, writer);
                     }
                 }
                 writer.endArray();
                 return;
             }
             if (value instanceof Iterable) {
+                RollbackDataWriter buffer = RollbackDataWriter.of(writer);
                 writer.startArray();
                 Type expectedItemType = Types.getTypeArgument(expected, 0, null);
                 for (Object item : pruner.getRange().apply((Iterable) value)) {
-                    writeBuffered(expectedItemType, item, pruner, writer);
+                    writeBuffered(expectedItemType, item, pruner, buffer, writer);
                 }
                 writer.endArray();
                 return;
             }
             if (value instanceof Map) {
+                RollbackDataWriter buffer = RollbackDataWriter.of(writer);
                 if (verboseMap != null) { // verbose form
                     writer.startArray();
                     for (Map.Entry e : ((Map<?, ?>) value).entrySet()) {
-                        BufferedDataWriter buffer = new BufferedDataWriter(writer.getExportConfig());
+                        int mark = buffer.mark();
                         try {
                             writeStartObjectNullType(buffer);
                             buffer.name(verboseMap[0]);
@@ -257,29 +290,33 @@ public abstract class Property implements Comparable<Property> {
                             buffer.name(verboseMap[1]);
                             writeValue(null, e.getValue(), pruner, buffer);
                             buffer.endObject();
-                            buffer.finished();
                         } catch (IOException x) {
                             if (x.getCause() instanceof InvocationTargetException) {
                                 LOGGER.log(Level.WARNING, "skipping export of " + e, x);
                             }
+                            buffer.rollback(mark);
+                        }
+                        if (buffer != writer) {
+                            buffer.flush();
                         }
-                        buffer.commit(writer);
                     }
                     writer.endArray();
                 } else { // compact form
                     writeStartObjectNullType(writer);
                     for (Map.Entry e : ((Map<?, ?>) value).entrySet()) {
-                        BufferedDataWriter buffer = new BufferedDataWriter(writer.getExportConfig());
+                        int mark = buffer.mark();
                         try {
                             buffer.name(e.getKey().toString());
                             writeValue(null, e.getValue(), pruner, buffer);
-                            buffer.finished();
                         } catch (IOException x) {
                             if (x.getCause() instanceof InvocationTargetException) {
                                 LOGGER.log(Level.WARNING, "skipping export of " + e, x);
                             }
+                            buffer.rollback(mark);
+                        }
+                        if (buffer != writer) {
+                            buffer.flush();
                         }
-                        buffer.commit(writer);
                     }
                     writer.endObject();
                 }
@@ -313,129 +350,169 @@ public abstract class Property implements Comparable<Property> {
         }
     }
 
-    private static class BufferedDataWriter implements DataWriter {
-        private final ExportConfig exportConfig;
+    /**
+     * Records {@link DataWriter} events so that the tail of them can be discarded when an item fails to export.
+     *
+     * <p>
+     * One instance is created for the outermost collection and shared by everything nested in it,
+     * which only {@linkplain #mark() marks} and {@linkplain #rollback(int) rolls back} positions.
+     * The recorded events are kept in flat arrays that are reused from one item to the next,
+     * so buffering an item doesn't allocate anything once the arrays have grown large enough.
+     */
+    private static final class RollbackDataWriter implements DataWriter {
+        private static final byte NAME = 0,
+                VALUE_PRIMITIVE = 1,
+                VALUE = 2,
+                VALUE_NULL = 3,
+                START_ARRAY = 4,
+                END_ARRAY = 5,
+                TYPE = 6,
+                START_OBJECT = 7,
+                END_OBJECT = 8;
+
+        private final DataWriter out;
+
+        private byte[] ops = new byte[64];
+        /**
+         * Arguments of {@link #ops}, two slots per op.
+         */
+        private Object[] args = new Object[128];
+
+        private int size;
+
+        private RollbackDataWriter(DataWriter out) {
+            this.out = out;
+        }
 
-        private BufferedDataWriter(ExportConfig exportConfig) {
-            this.exportConfig = exportConfig;
+        /**
+         * Returns the writer itself if it's already buffering, or a new buffer in front of it.
+         */
+        static RollbackDataWriter of(DataWriter writer) {
+            return writer instanceof RollbackDataWriter b ? b : new RollbackDataWriter(writer);
         }
 
         @Override
         public @NonNull ExportConfig getExportConfig() {
-            return exportConfig;
+            return out.getExportConfig();
         }
 
-        enum Op {
-            name,
-            valuePrimitive,
-            value,
-            valueNull,
-            startArray,
-            endArray,
-            type,
-            startObject,
-            endObject
+        int mark() {
+            return size;
         }
 
-        static class Step {
-            final Op op;
-            final Object[] args;
+        /**
+         * Discards everything written since the given {@link #mark()}.
+         */
+        void rollback(int mark) {
+            Arrays.fill(args, mark * 2, size * 2, null);
+            size = mark;
+        }
 
-            Step(Op op, Object... args) {
-                this.op = op;
-                this.args = args;
+        /**
+         * Sends everything recorded so far to the underlying writer, and empties the buffer.
+         */
+        void flush() throws IOException {
+            int n = size;
+            size = 0;
+            for (int i = 0; i < n; i++) {
+                Object a = args[i * 2];
+                switch (ops[i]) {
+                    case NAME:
+                        if (a instanceof Property p) {
+                            p.writeName(out);
+                        } else {
+                            out.name((String) a);
+                        }
+                        break;
+                    case VALUE_PRIMITIVE:
+                        out.valuePrimitive(a);
+                        break;
+                    case VALUE:
+                        out.value((String) a);
+                        break;
+                    case VALUE_NULL:
+                        out.valueNull();
+                        break;
+                    case START_ARRAY:
+                        out.startArray();
+                        break;
+                    case END_ARRAY:
+                        out.endArray();
+                        break;
+                    case TYPE:
+                        out.type((Type) a, (Class) args[i * 2 + 1]);
+                        break;
+                    case START_OBJECT:
+                        out.startObject();
+                        break;
+                    case END_OBJECT:
+                        out.endObject();
+                        break;
+                    default:
+                        throw new AssertionError();
+                }
             }
+            Arrays.fill(args, 0, n * 2, null);
         }
 
-        final List<Step> steps = new ArrayList<>();
-        boolean finished = false;
-
-        @Override
-        public void name(String name) throws IOException {
-            steps.add(new Step(Op.name, name));
+        private void add(byte op, Object a1, Object a2) {
+            if (size == ops.length) {
+                ops = Arrays.copyOf(ops, size * 2);
+                args = Arrays.copyOf(args, size * 4);
+            }
+            ops[size] = op;
+            args[size * 2] = a1;
+            args[size * 2 + 1] = a2;
+            size++;
         }
 
         @Override
-        public void valuePrimitive(Object v) throws IOException {
-            steps.add(new Step(Op.valuePrimitive, v));
+        public void name(String name) {
+            add(NAME, name, null);
         }
 
-        @Override
-        public void value(String v) throws IOException {
-            steps.add(new Step(Op.value, v));
+        void name(Property p) {
+            add(NAME, p, null);
         }
 
         @Override
-        public void valueNull() throws IOException {
-            steps.add(new Step(Op.valueNull));
+        public void valuePrimitive(Object v) {
+            add(VALUE_PRIMITIVE, v, null);
         }
 
         @Override
-        public void startArray() throws IOException {
-            steps.add(new Step(Op.startArray));
+        public void value(String v) {
+            add(VALUE, v, null);
         }
 
         @Override
-        public void endArray() throws IOException {
-            steps.add(new Step(Op.endArray));
+        public void valueNull() {
+            add(VALUE_NULL, null, null);
         }
 
         @Override
-        public void type(Type expected, Class actual) throws IOException {
-            steps.add(new Step(Op.type, expected, actual));
+        public void startArray() {
+            add(START_ARRAY, null, null);
         }
 
         @Override
-        public void startObject() throws IOException {
-            steps.add(new Step(Op.startObject));
+        public void endArray() {
+            add(END_ARRAY, null, null);
         }
 
         @Override
-        public void endObject() throws IOException {
-            steps.add(new Step(Op.endObject));
+        public void type(Type expected, Class actual) {
+            add(TYPE, expected, actual);
         }
 
-        private void finished() {
-            finished = true;
+        @Override
+        public void startObject() {
+            add(START_OBJECT, null, null);
         }
 
-        void commit(DataWriter w) throws IOException {
-            if (!finished) {
-                return;
-            }
-            for (Step step : steps) {
-                switch (step.op) {
-                    case name:
-                        w.name((String) step.args[0]);
-                        break;
-                    case valuePrimitive:
-                        w.valuePrimitive(step.args[0]);
-                        break;
-                    case value:
-                        w.value((String) step.args[0]);
-                        break;
-                    case valueNull:
-                        w.valueNull();
-                        break;
-                    case startArray:
-                        w.startArray();
-                        break;
-                    case endArray:
-                        w.endArray();
-                        break;
-                    case type:
-                        w.type((Type) step.args[0], (Class) step.args[1]);
-                        break;
-                    case startObject:
-                        w.startObject();
-                        break;
-                    case endObject:
-                        w.endObject();
-                        break;
-                    default:
-                        throw new AssertionError();
-                }
-            }
+        @Override
+        public void endObject() {
+            add(END_OBJECT, null, null);
         }
     }
 
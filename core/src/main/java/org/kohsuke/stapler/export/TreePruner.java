@@ -43,6 +43,19 @@ public abstract class TreePruner {
         return Range.ALL;
     }
 
+    /**
+     * Narrows down the properties of a model to those that {@link #accept(Object, Property)} may accept,
+     * so that the rest need not be visited at all.
+     *
+     * @param properties
+     *      Properties declared on the model itself.
+     * @return
+     *      The properties to visit, in the same order. {@link #accept(Object, Property)} is still consulted for each.
+     */
+    /*package*/ Property[] select(Model<?> model, Property[] properties) {
+        return properties;
+    }
+
     public static class ByDepth extends TreePruner {
         final int n;
         private ByDepth next;
@@ -23,11 +23,11 @@
 
 package org.kohsuke.stapler.framework.io;
 
-import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Arrays;
 
 /**
  * {@link ByteArrayOutputStream} re-implementation.
@@ -35,53 +35,80 @@ import java.io.OutputStream;
  * <p>
  * This version allows one to read while writing is in progress.
  *
+ * <p>
+ * The data is kept in chunks that double in size up to 1MB, so that growing the buffer
+ * never copies what's already been written. Readers don't need to lock.
+ *
  * @author Kohsuke Kawaguchi
  */
-// TODO: reimplement this without buffer reallocation
 public class ByteBuffer extends OutputStream {
-    private byte[] buf = new byte[8192];
+    /**
+     * Chunk {@code i} has {@link #chunkSize(int)} bytes, and starts at {@link #chunkStart(int)}.
+     * Only ever replaced by a longer array with the same chunks, before {@link #size} is updated.
+     */
+    private volatile byte[][] chunks = {new byte[FIRST_CHUNK]};
     /**
      * Size of the data.
      */
-    private int size = 0;
+    private volatile int size = 0;
 
     @Override
     public synchronized void write(byte[] b, int off, int len) throws IOException {
-        ensureCapacity(len);
-        System.arraycopy(b, off, buf, size, len);
-        size += len;
+        while (len > 0) {
+            int i = chunkOf(size);
+            byte[] chunk = chunk(i);
+            int pos = size - chunkStart(i);
+            int n = Math.min(len, chunk.length - pos);
+            System.arraycopy(b, off, chunk, pos, n);
+            off += n;
+            len -= n;
+            size += n;
+        }
     }
 
     @Override
     public synchronized void write(int b) throws IOException {
-        ensureCapacity(1);
-        buf[size++] = (byte) b;
-    }
-
-    public synchronized long length() {
-        return size;
+        int i = chunkOf(size);
+        chunk(i)[size - chunkStart(i)] = (byte) b;
+        size++;
     }
 
-    private void ensureCapacity(int len) {
-        if (buf.length - size > len) {
-            return;
+    private byte[] chunk(int i) {
+        byte[][] chunks = this.chunks;
+        if (i == chunks.length) {
+            chunks = Arrays.copyOf(chunks, i + 1);
+            chunks[i] = new byte[chunkSize(i)];
+            this.chunks = chunks;
         }
+        return chunks[i];
+    }
 
-        byte[] n = new byte[Math.max(buf.length * 2, size + len)];
-        System.arraycopy(buf, 0, n, 0, size);
-        this.buf = n;
+    public long length() {
+        return size;
     }
 
     @Override
-    public synchronized String toString() {
-        return new String(buf, 0, size);
+    public String toString() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(size);
+        try {
+            writeTo(baos);
+        } catch (IOException e) {
+            throw new AssertionError(e); // ByteArrayOutputStream doesn't throw
+        }
+        return baos.toString();
     }
 
     /**
      * Writes the contents of this buffer to another OutputStream.
      */
-    public synchronized void writeTo(OutputStream os) throws IOException {
-        os.write(buf, 0, size);
+    public void writeTo(OutputStream os) throws IOException {
+        int size = this.size;
+        byte[][] chunks = this.chunks;
+        for (int i = 0, pos = 0; pos < size; i++) {
+            int n = Math.min(chunks[i].length, size - pos);
+            os.write(chunks[i], 0, n);
+            pos += n;
+        }
     }
 
     /**
@@ -92,48 +119,68 @@ public class ByteBuffer extends OutputStream {
             private int pos = 0;
 
             @Override
-            @SuppressFBWarnings(value = "USO_UNSAFE_OBJECT_SYNCHRONIZATION", justification = "Warning is unreasonable")
             public int read() throws IOException {
-                synchronized (ByteBuffer.this) {
-                    if (pos >= size) {
-                        return -1;
-                    }
-                    return buf[pos++];
+                if (pos >= size) {
+                    return -1;
                 }
+                int i = chunkOf(pos);
+                return chunks[i][pos++ - chunkStart(i)] & 0xFF;
             }
 
             @Override
-            @SuppressFBWarnings(value = "USO_UNSAFE_OBJECT_SYNCHRONIZATION", justification = "Warning is unreasonable")
             public int read(byte[] b, int off, int len) throws IOException {
-                synchronized (ByteBuffer.this) {
-                    if (size == pos) {
-                        return -1;
-                    }
-
-                    int sz = Math.min(len, size - pos);
-                    System.arraycopy(buf, pos, b, off, sz);
-                    pos += sz;
-                    return sz;
+                int size = ByteBuffer.this.size;
+                if (size == pos) {
+                    return -1;
                 }
+
+                int i = chunkOf(pos);
+                byte[] chunk = chunks[i];
+                int start = pos - chunkStart(i);
+                int sz = Math.min(Math.min(len, size - pos), chunk.length - start);
+                System.arraycopy(chunk, start, b, off, sz);
+                pos += sz;
+                return sz;
             }
 
             @Override
-            @SuppressFBWarnings(value = "USO_UNSAFE_OBJECT_SYNCHRONIZATION", justification = "Warning is unreasonable")
             public int available() throws IOException {
-                synchronized (ByteBuffer.this) {
-                    return size - pos;
-                }
+                return size - pos;
             }
 
             @Override
-            @SuppressFBWarnings(value = "USO_UNSAFE_OBJECT_SYNCHRONIZATION", justification = "Warning is unreasonable")
             public long skip(long n) throws IOException {
-                synchronized (ByteBuffer.this) {
-                    int diff = (int) Math.min(n, size - pos);
-                    pos += diff;
-                    return diff;
-                }
+                int diff = (int) Math.max(0, Math.min(n, size - pos));
+                pos += diff;
+                return diff;
             }
         };
     }
+
+    private static int chunkSize(int i) {
+        return i < GROWTH ? FIRST_CHUNK << i : MAX_CHUNK;
+    }
+
+    private static int chunkStart(int i) {
+        return i < GROWTH ? FIRST_CHUNK * ((1 << i) - 1) : GROWN + (i - GROWTH) * MAX_CHUNK;
+    }
+
+    private static int chunkOf(int pos) {
+        if (pos >= GROWN) {
+            return GROWTH + (pos - GROWN) / MAX_CHUNK;
+        }
+        return 31 - Integer.numberOfLeadingZeros(pos / FIRST_CHUNK + 1);
+    }
+
+    private static final int FIRST_CHUNK = 8192;
+    /**
+     * Number of times chunks double in size.
+     */
+    private static final int GROWTH = 7;
+
+    private static final int MAX_CHUNK = FIRST_CHUNK << GROWTH;
+    /**
+     * Where the first chunk of {@link #MAX_CHUNK} starts.
+     */
+    private static final int GROWN = FIRST_CHUNK * ((1 << GROWTH) - 1);
 }
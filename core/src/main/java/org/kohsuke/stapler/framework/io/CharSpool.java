@@ -25,18 +25,24 @@ package org.kohsuke.stapler.framework.io;
 
 import java.io.IOException;
 import java.io.Writer;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 /**
  * {@link Writer} that spools the output and writes to another {@link Writer} later.
  *
+ * <p>
+ * The output is kept in chunks that grow from 1K to 64K chars as more is written.
+ * Chunks come from a small pool, to which they go back once the spool is {@link #release() released}.
+ *
  * @author Kohsuke Kawaguchi
  */
 public /*for now, until Hudson migration completes*/ final class CharSpool extends Writer {
     private List<char[]> buf;
 
-    private char[] last = new char[1024];
+    private char[] last = acquire(0);
     private int pos;
 
     @Override
@@ -57,10 +63,10 @@ public /*for now, until Hudson migration completes*/ final class CharSpool exten
         }
 
         if (buf == null) {
-            buf = new LinkedList<>();
+            buf = new ArrayList<>();
         }
         buf.add(last);
-        last = new char[1024];
+        last = acquire(buf.size());
         pos = 0;
     }
 
@@ -88,4 +94,52 @@ public /*for now, until Hudson migration completes*/ final class CharSpool exten
         }
         w.write(last, 0, pos);
     }
+
+    /**
+     * Returns the chunks to the pool. The spool must not be used afterwards.
+     */
+    void release() {
+        if (buf != null) {
+            for (char[] cb : buf) {
+                recycle(cb);
+            }
+            buf = null;
+        }
+        recycle(last);
+        last = null;
+    }
+
+    /**
+     * Gets the {@code n}th chunk of a spool.
+     */
+    private static char[] acquire(int n) {
+        int sizeClass = Math.min(n / CHUNKS_PER_SIZE_CLASS, POOLS.length - 1);
+        char[] chunk = POOLS[sizeClass].poll();
+        return chunk != null ? chunk : new char[MIN_CHUNK << (2 * sizeClass)];
+    }
+
+    private static void recycle(char[] chunk) {
+        int sizeClass = Integer.numberOfTrailingZeros(chunk.length / MIN_CHUNK) / 2;
+        POOLS[sizeClass].offer(chunk); // or leave it to GC if the pool is full
+    }
+
+    private static final int MIN_CHUNK = 1024;
+
+    /**
+     * Number of chunks of a size before moving on to the next larger size, of 4 times as many chars.
+     */
+    private static final int CHUNKS_PER_SIZE_CLASS = 4;
+
+    /**
+     * Unused chunks of 1K, 4K, 16K and 64K chars.
+     */
+    @SuppressWarnings("unchecked")
+    private static final BlockingQueue<char[]>[] POOLS = new BlockingQueue[4];
+
+    static {
+        int capacity = Integer.getInteger(CharSpool.class.getName() + ".poolSize", 16);
+        for (int i = 0; i < POOLS.length; i++) {
+            POOLS[i] = new ArrayBlockingQueue<>(capacity);
+        }
+    }
 }
@@ -0,0 +1,125 @@
+package org.kohsuke.stapler.framework.io;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Tells everyone who's following a {@link LargeText} when it grows or completes.
+ *
+ * <p>
+ * While anyone is listening, the length of the text is checked periodically by a thread that's shared by all
+ * {@link LargeText}s, so that the number of people following the same text doesn't change how often we look.
+ * Listeners are expected to return quickly, and do the actual work elsewhere, such as on {@link #WRITERS}.
+ */
+final class GrowthNotifier {
+    private final LargeText text;
+
+    private final Set<Runnable> listeners = new CopyOnWriteArraySet<>();
+
+    /**
+     * Length of the text when we last looked, or -1 while nobody's listening.
+     */
+    private long lastLength = -1;
+
+    private ScheduledFuture<?> poll;
+
+    GrowthNotifier(LargeText text) {
+        this.text = text;
+    }
+
+    synchronized void add(Runnable listener) {
+        listeners.add(listener);
+        if (poll == null) {
+            poll = POLLER.scheduleWithFixedDelay(this::check, POLL_INTERVAL, POLL_INTERVAL, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    synchronized void remove(Runnable listener) {
+        listeners.remove(listener);
+        if (listeners.isEmpty() && poll != null) {
+            poll.cancel(false);
+            poll = null;
+            lastLength = -1;
+        }
+    }
+
+    private void check() {
+        long length;
+        try {
+            length = text.length();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.FINE, "Failed to check the length of " + text, e);
+            return;
+        }
+        synchronized (this) {
+            if (length == lastLength) {
+                return;
+            }
+            lastLength = length;
+        }
+        fire();
+    }
+
+    /**
+     * Notifies all the listeners right away.
+     */
+    void fire() {
+        for (Runnable listener : listeners) {
+            listener.run();
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger n = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, name + " #" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /**
+     * How often the length of a {@link LargeText} is checked while someone's following it, in milliseconds.
+     */
+    private static final long POLL_INTERVAL = Long.getLong(GrowthNotifier.class.getName() + ".pollInterval", 1000);
+
+    private static final ScheduledExecutorService POLLER =
+            Executors.newSingleThreadScheduledExecutor(daemon("LargeText growth notifier"));
+
+    /**
+     * Maximum number of threads sending new text to the clients at once.
+     * Beyond this, clients wait for their turn. A client that doesn't read holds up a thread
+     * only until {@link LargeText#EVENT_WRITE_TIMEOUT}, at which point it's dropped.
+     */
+    private static final int MAX_WRITERS = Integer.getInteger(GrowthNotifier.class.getName() + ".maxWriters", 16);
+
+    /**
+     * Threads to send new text to the clients, as that waits for them to read what was sent before.
+     */
+    static final ExecutorService WRITERS = writers();
+
+    private static ExecutorService writers() {
+        ThreadPoolExecutor e = new ThreadPoolExecutor(
+                MAX_WRITERS,
+                MAX_WRITERS,
+                60,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), // each client has at most one task waiting
+                daemon("LargeText writer"));
+        e.allowCoreThreadTimeOut(true);
+        return e;
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(GrowthNotifier.class.getName());
+}
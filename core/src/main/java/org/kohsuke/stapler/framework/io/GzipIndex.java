@@ -0,0 +1,870 @@
+package org.kohsuke.stapler.framework.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Index of places in a gzip file where decompression can be resumed, so that reading from an offset
+ * doesn't require inflating everything before it, along the lines of zlib's {@code zran.c}.
+ *
+ * <p>
+ * Deflate streams can only be resumed at the start of a compressed block, given the 32K of text that precede it.
+ * {@link Inflater} can't tell us where the blocks are, so the index is built once by decoding the whole file with
+ * {@link Decoder}, which notes a {@link Checkpoint} every {@link #SPAN} bytes of text.
+ * Reading from a checkpoint is left to {@link Inflater}, which is given the preceding text as its dictionary,
+ * and the compressed data shifted so that the block starts on a byte boundary.
+ *
+ * <p>
+ * Building the index is about as slow as reading the whole file once, so it's done in the background, once per file,
+ * while readers carry on reading sequentially. It's then kept around, and saved so that it survives restarts:
+ * next to the file as {@code *.index} when possible, or in the directory given by the
+ * {@code org.kohsuke.stapler.framework.io.GzipIndex.dir} system property.
+ */
+final class GzipIndex {
+    /**
+     * Where a compressed block starts.
+     *
+     * @param out offset in the text
+     * @param in offset of the byte in the file that contains the first bit of the block
+     * @param bits how many bits of that byte precede the block
+     * @param window the text that precedes the block, up to 32K, deflated to save space
+     */
+    record Checkpoint(long out, long in, int bits, byte[] window) {}
+
+    /**
+     * What the file looked like when it was indexed: its size, when it was last modified, and its last 8 bytes,
+     * which are the CRC and length of the last gzip member, to tell if the index is still valid.
+     */
+    record Stamp(long size, long lastModified, long trailer) {
+        static Stamp of(File file) throws IOException {
+            long size = file.length(), lastModified = file.lastModified(), trailer = 0;
+            if (size >= 8) {
+                try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                    ByteBuffer buf = ByteBuffer.allocate(8);
+                    while (buf.hasRemaining()) {
+                        if (ch.read(buf, size - 8 + buf.position()) < 0) {
+                            break;
+                        }
+                    }
+                    trailer = buf.getLong(0);
+                }
+            }
+            return new Stamp(size, lastModified, trailer);
+        }
+    }
+
+    private final Stamp stamp;
+
+    /**
+     * Length of the text.
+     */
+    final long length;
+
+    /**
+     * Offsets of gzip members in the file, and the text, as gzip files can be concatenated.
+     */
+    private final long[] memberIn, memberOut;
+
+    private final Checkpoint[] checkpoints;
+
+    private GzipIndex(Stamp stamp, long length, long[] memberIn, long[] memberOut, Checkpoint[] checkpoints) {
+        this.stamp = stamp;
+        this.length = length;
+        this.memberIn = memberIn;
+        this.memberOut = memberOut;
+        this.checkpoints = checkpoints;
+    }
+
+    /**
+     * Opens the text of the file at the given offset.
+     */
+    InputStream open(File file, long offset) throws IOException {
+        offset = Math.min(offset, length);
+
+        int member = 0;
+        while (member + 1 < memberOut.length && memberOut[member + 1] <= offset) {
+            member++;
+        }
+        Checkpoint cp = null;
+        for (Checkpoint c : checkpoints) { // there are only so many
+            if (c.out > offset) {
+                break;
+            }
+            cp = c;
+        }
+
+        InputStream in;
+        long pos;
+        if (cp == null || cp.out < memberOut[member]) {
+            in = new GZIPInputStream(openAt(file, memberIn[member]));
+            pos = memberOut[member];
+        } else {
+            in = openCheckpoint(file, cp, member + 1 < memberIn.length ? memberIn[member + 1] : -1);
+            pos = cp.out;
+        }
+
+        try {
+            while (pos < offset) {
+                long n = in.skip(offset - pos);
+                if (n <= 0) {
+                    break;
+                }
+                pos += n;
+            }
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+        return in;
+    }
+
+    private static InputStream openAt(File file, long pos) throws IOException {
+        FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        ch.position(pos);
+        return new BufferedInputStream(Channels.newInputStream(ch), 64 * 1024);
+    }
+
+    /**
+     * Reads from a checkpoint to the end of its member, then carries on with the following members, if any.
+     */
+    private static InputStream openCheckpoint(File file, Checkpoint cp, long nextMember) throws IOException {
+        Inflater inflater = new Inflater(true);
+        InputStream raw = openAt(file, cp.in);
+        if (cp.bits > 0) {
+            raw = new BitShiftingInputStream(raw, cp.bits);
+        }
+        InputStream in = new InflaterInputStream(raw, inflater, 64 * 1024) {
+            @Override
+            public void close() throws IOException {
+                super.close();
+                inflater.end();
+            }
+        };
+        try {
+            byte[] window = inflate(cp.window);
+            if (window.length > 0) {
+                inflater.setDictionary(window);
+            }
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+        if (nextMember < 0) {
+            return in;
+        }
+        return new SequenceInputStream(in, new LazyInputStream(() -> new GZIPInputStream(openAt(file, nextMember))));
+    }
+
+    /**
+     * Feeds the bytes of the underlying stream shifted by a number of bits, so that data that starts in the middle of a
+     * byte starts on a byte boundary.
+     */
+    /*package for test*/ static final class BitShiftingInputStream extends FilterInputStream {
+        private final int bits;
+        private int cur;
+
+        BitShiftingInputStream(InputStream in, int bits) throws IOException {
+            super(in);
+            this.bits = bits;
+            cur = in.read();
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (cur < 0) {
+                return -1;
+            }
+            int next = in.read();
+            int b = (cur >>> bits) | (next < 0 ? 0 : (next << (8 - bits)) & 0xFF);
+            cur = next;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            int n = 0;
+            while (n < len) {
+                int c = read();
+                if (c < 0) {
+                    break;
+                }
+                b[off + n++] = (byte) c;
+                if (in.available() == 0) {
+                    break; // don't block for more than we need
+                }
+            }
+            return n == 0 ? -1 : n;
+        }
+
+        /**
+         * Reads and discards, as each byte is made of two underlying ones, so the underlying stream can't skip them.
+         */
+        @Override
+        public long skip(long n) throws IOException {
+            if (n <= 0) {
+                return 0;
+            }
+            byte[] buf = new byte[(int) Math.min(n, 8192)];
+            long remaining = n;
+            while (remaining > 0) {
+                int r = read(buf, 0, (int) Math.min(remaining, buf.length));
+                if (r < 0) {
+                    break;
+                }
+                remaining -= r;
+            }
+            return n - remaining;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return in.available();
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+
+    /**
+     * Opens the underlying stream when it's first needed.
+     */
+    private static final class LazyInputStream extends InputStream {
+        interface Opener {
+            InputStream open() throws IOException;
+        }
+
+        private final Opener opener;
+        private InputStream in;
+
+        LazyInputStream(Opener opener) {
+            this.opener = opener;
+        }
+
+        private InputStream in() throws IOException {
+            if (in == null) {
+                in = opener.open();
+            }
+            return in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return in().read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return in().read(b, off, len);
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            return in().skip(n);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (in != null) {
+                in.close();
+            }
+        }
+    }
+
+    private static byte[] deflate(byte[] buf, int len) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(len / 4);
+        try (DeflaterOutputStream out = new DeflaterOutputStream(baos, new Deflater(Deflater.BEST_SPEED, true))) {
+            out.write(buf, 0, len);
+        } catch (IOException e) {
+            throw new AssertionError(e); // ByteArrayOutputStream doesn't throw
+        }
+        return baos.toByteArray();
+    }
+
+    private static byte[] inflate(byte[] compressed) throws IOException {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed);
+            ByteArrayOutputStream baos = new ByteArrayOutputStream(WINDOW_SIZE);
+            byte[] buf = new byte[WINDOW_SIZE];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buf);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break; // see Inflater's note on nowrap needing an extra byte
+                }
+                baos.write(buf, 0, n);
+            }
+            return baos.toByteArray();
+        } catch (DataFormatException e) {
+            throw new ZipException(e.getMessage());
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Decodes a gzip file to index it. Deliberately simple, after zlib's {@code puff.c}, as it's only used once per file.
+     */
+    private static final class Decoder {
+        private final InputStream in;
+        /**
+         * Number of bytes read from {@link #in}.
+         */
+        private long inPos;
+
+        private int bitBuf, bitCnt;
+
+        private final byte[] window = new byte[WINDOW_SIZE];
+        /**
+         * Length of the text so far.
+         */
+        private long out;
+        /**
+         * Where the text of the current member starts, as we mustn't look past that.
+         */
+        private long memberStart;
+
+        private final long span;
+        private final List<Long> memberIn = new ArrayList<>(), memberOut = new ArrayList<>();
+        private final List<Checkpoint> checkpoints = new ArrayList<>();
+
+        Decoder(InputStream in, long span) {
+            this.in = in;
+            this.span = span;
+        }
+
+        void decode() throws IOException {
+            while (true) {
+                int b = in.read();
+                if (b < 0) {
+                    if (memberIn.isEmpty()) {
+                        throw new EOFException("Empty GZIP stream");
+                    }
+                    return;
+                }
+                if (b != 0x1F || in.read() != 0x8B) {
+                    if (memberIn.isEmpty()) {
+                        throw new ZipException("Not in GZIP format");
+                    }
+                    return; // trailing garbage, which GZIPInputStream ignores too
+                }
+                memberIn.add(inPos);
+                memberOut.add(out);
+                memberStart = out;
+                inPos += 2;
+                header();
+                blocks();
+                bitBuf = bitCnt = 0; // skip to the byte boundary
+                for (int i = 0; i < 8; i++) {
+                    readByte(); // CRC and size, which GZIPInputStream will check when reading
+                }
+            }
+        }
+
+        private int readByte() throws IOException {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Unexpected end of GZIP stream");
+            }
+            inPos++;
+            return b;
+        }
+
+        private void header() throws IOException {
+            if (readByte() != 8) {
+                throw new ZipException("Unsupported compression method");
+            }
+            int flags = readByte();
+            for (int i = 0; i < 6; i++) {
+                readByte(); // MTIME, XFL, OS
+            }
+            if ((flags & 4) != 0) { // FEXTRA
+                int len = readByte() | readByte() << 8;
+                for (int i = 0; i < len; i++) {
+                    readByte();
+                }
+            }
+            if ((flags & 8) != 0) { // FNAME
+                while (readByte() != 0) {}
+            }
+            if ((flags & 16) != 0) { // FCOMMENT
+                while (readByte() != 0) {}
+            }
+            if ((flags & 2) != 0) { // FHCRC
+                readByte();
+                readByte();
+            }
+        }
+
+        private int bits(int need) throws IOException {
+            int val = bitBuf;
+            while (bitCnt < need) {
+                val |= readByte() << bitCnt;
+                bitCnt += 8;
+            }
+            bitBuf = val >>> need;
+            bitCnt -= need;
+            return val & ((1 << need) - 1);
+        }
+
+        private void put(int b) {
+            window[(int) (out++ & (WINDOW_SIZE - 1))] = (byte) b;
+        }
+
+        private void blocks() throws IOException {
+            long lastCheckpoint = out;
+            boolean last;
+            do {
+                if (out - lastCheckpoint >= span) {
+                    checkpoint();
+                    lastCheckpoint = out;
+                }
+                last = bits(1) == 1;
+                switch (bits(2)) {
+                    case 0 -> stored();
+                    case 1 -> codes(FIXED_LENGTH, FIXED_DISTANCE);
+                    case 2 -> dynamic();
+                    default -> throw new ZipException("Invalid block type");
+                }
+            } while (!last);
+        }
+
+        private void checkpoint() {
+            long bitPos = inPos * 8 - bitCnt;
+            int len = (int) Math.min(WINDOW_SIZE, out - memberStart);
+            byte[] buf = new byte[len];
+            for (int i = 0; i < len; i++) {
+                buf[i] = window[(int) ((out - len + i) & (WINDOW_SIZE - 1))];
+            }
+            checkpoints.add(new Checkpoint(out, bitPos / 8, (int) (bitPos % 8), deflate(buf, len)));
+        }
+
+        private void stored() throws IOException {
+            bitBuf = bitCnt = 0;
+            int len = readByte() | readByte() << 8;
+            int nlen = readByte() | readByte() << 8;
+            if (len != (~nlen & 0xFFFF)) {
+                throw new ZipException("Invalid stored block lengths");
+            }
+            for (int i = 0; i < len; i++) {
+                put(readByte());
+            }
+        }
+
+        private int decode(Huffman h) throws IOException {
+            int code = 0, first = 0, index = 0;
+            for (int len = 1; len <= MAX_BITS; len++) {
+                code |= bits(1);
+                int count = h.count[len];
+                if (code - count < first) {
+                    return h.symbol[index + (code - first)];
+                }
+                index += count;
+                first += count;
+                first <<= 1;
+                code <<= 1;
+            }
+            throw new ZipException("Invalid Huffman code");
+        }
+
+        private void codes(Huffman lencode, Huffman distcode) throws IOException {
+            int symbol;
+            while ((symbol = decode(lencode)) != 256) {
+                if (symbol < 256) {
+                    put(symbol);
+                    continue;
+                }
+                symbol -= 257;
+                if (symbol >= 29) {
+                    throw new ZipException("Invalid length code");
+                }
+                int len = LENGTH_BASE[symbol] + bits(LENGTH_EXTRA[symbol]);
+                symbol = decode(distcode);
+                if (symbol >= 30) {
+                    throw new ZipException("Invalid distance code");
+                }
+                int dist = DISTANCE_BASE[symbol] + bits(DISTANCE_EXTRA[symbol]);
+                if (dist > out - memberStart) {
+                    throw new ZipException("Invalid distance too far back");
+                }
+                for (int i = 0; i < len; i++) {
+                    put(window[(int) ((out - dist) & (WINDOW_SIZE - 1))]);
+                }
+            }
+        }
+
+        private void dynamic() throws IOException {
+            int nlen = bits(5) + 257;
+            int ndist = bits(5) + 1;
+            int ncode = bits(4) + 4;
+            if (nlen > 286 || ndist > 30) {
+                throw new ZipException("Invalid code lengths");
+            }
+
+            short[] lengths = new short[320];
+            for (int i = 0; i < ncode; i++) {
+                lengths[CODE_LENGTH_ORDER[i]] = (short) bits(3);
+            }
+            Huffman lencode = new Huffman(lengths, 0, 19);
+            if (lencode.left != 0) {
+                throw new ZipException("Invalid code lengths");
+            }
+
+            int index = 0;
+            while (index < nlen + ndist) {
+                int symbol = decode(lencode);
+                if (symbol < 16) {
+                    lengths[index++] = (short) symbol;
+                    continue;
+                }
+                short len = 0;
+                if (symbol == 16) {
+                    if (index == 0) {
+                        throw new ZipException("Repeat with no previous length");
+                    }
+                    len = lengths[index - 1];
+                    symbol = 3 + bits(2);
+                } else if (symbol == 17) {
+                    symbol = 3 + bits(3);
+                } else {
+                    symbol = 11 + bits(7);
+                }
+                if (index + symbol > nlen + ndist) {
+                    throw new ZipException("Too many lengths");
+                }
+                while (symbol-- > 0) {
+                    lengths[index++] = len;
+                }
+            }
+            if (lengths[256] == 0) {
+                throw new ZipException("No end-of-block code");
+            }
+
+            lencode = new Huffman(lengths, 0, nlen);
+            if (lencode.left < 0 || (lencode.left > 0 && nlen != lencode.count[0] + lencode.count[1])) {
+                throw new ZipException("Invalid literal/length code");
+            }
+            Huffman distcode = new Huffman(lengths, nlen, ndist);
+            if (distcode.left < 0 || (distcode.left > 0 && ndist != distcode.count[0] + distcode.count[1])) {
+                throw new ZipException("Invalid distance code");
+            }
+            codes(lencode, distcode);
+        }
+
+        GzipIndex toIndex(Stamp stamp) {
+            return new GzipIndex(
+                    stamp,
+                    out,
+                    memberIn.stream().mapToLong(Long::longValue).toArray(),
+                    memberOut.stream().mapToLong(Long::longValue).toArray(),
+                    checkpoints.toArray(new Checkpoint[0]));
+        }
+    }
+
+    /**
+     * Canonical Huffman code, as the number of codes of each length and the symbols in order.
+     */
+    private static final class Huffman {
+        final short[] count = new short[MAX_BITS + 1];
+        final short[] symbol;
+        /**
+         * Zero for a complete code, positive if incomplete, negative if over-subscribed.
+         */
+        final int left;
+
+        Huffman(short[] lengths, int off, int n) {
+            symbol = new short[n];
+            for (int i = 0; i < n; i++) {
+                count[lengths[off + i]]++;
+            }
+            if (count[0] == n) {
+                left = 0;
+                return;
+            }
+
+            int left = 1;
+            for (int len = 1; len <= MAX_BITS; len++) {
+                left <<= 1;
+                left -= count[len];
+                if (left < 0) {
+                    break;
+                }
+            }
+            this.left = left;
+
+            short[] offs = new short[MAX_BITS + 1];
+            for (int len = 1; len < MAX_BITS; len++) {
+                offs[len + 1] = (short) (offs[len] + count[len]);
+            }
+            for (int i = 0; i < n; i++) {
+                if (lengths[off + i] != 0 && offs[lengths[off + i]] < n) {
+                    symbol[offs[lengths[off + i]]++] = (short) i;
+                }
+            }
+        }
+    }
+
+    private static final int MAX_BITS = 15;
+    private static final int WINDOW_SIZE = 32 * 1024;
+
+    private static final short[] LENGTH_BASE = {
+        3, 4, 5, 6, 7, 8, 9, 10, 11, 13, 15, 17, 19, 23, 27, 31, 35, 43, 51, 59, 67, 83, 99, 115, 131, 163, 195, 227, 258
+    };
+    private static final short[] LENGTH_EXTRA = {
+        0, 0, 0, 0, 0, 0, 0, 0, 1, 1, 1, 1, 2, 2, 2, 2, 3, 3, 3, 3, 4, 4, 4, 4, 5, 5, 5, 5, 0
+    };
+    private static final short[] DISTANCE_BASE = {
+        1, 2, 3, 4, 5, 7, 9, 13, 17, 25, 33, 49, 65, 97, 129, 193, 257, 385, 513, 769, 1025, 1537, 2049, 3073, 4097,
+        6145, 8193, 12289, 16385, 24577
+    };
+    private static final short[] DISTANCE_EXTRA = {
+        0, 0, 0, 0, 1, 1, 2, 2, 3, 3, 4, 4, 5, 5, 6, 6, 7, 7, 8, 8, 9, 9, 10, 10, 11, 11, 12, 12, 13, 13
+    };
+    private static final int[] CODE_LENGTH_ORDER = {16, 17, 18, 0, 8, 7, 9, 6, 10, 5, 11, 4, 12, 3, 13, 2, 14, 1, 15};
+
+    private static final Huffman FIXED_LENGTH, FIXED_DISTANCE;
+
+    static {
+        short[] lengths = new short[288];
+        for (int i = 0; i < 288; i++) {
+            lengths[i] = (short) (i < 144 ? 8 : i < 256 ? 9 : i < 280 ? 7 : 8);
+        }
+        FIXED_LENGTH = new Huffman(lengths, 0, 288);
+        short[] distances = new short[30];
+        Arrays.fill(distances, (short) 5);
+        FIXED_DISTANCE = new Huffman(distances, 0, 30);
+    }
+
+    /**
+     * Gets the index of the given file if it's ready, and otherwise starts building it in the background.
+     *
+     * @return null if the index isn't ready yet, in which case the file has to be read sequentially.
+     */
+    static GzipIndex get(File file) {
+        File f = file.getAbsoluteFile();
+        try {
+            Stamp stamp = Stamp.of(f);
+            synchronized (INDICES) {
+                GzipIndex index = INDICES.get(f);
+                if (index != null && index.stamp.equals(stamp)) {
+                    return index;
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Failed to check " + f, e);
+            return null;
+        }
+        BUILDS.computeIfAbsent(f, GzipIndex::build);
+        return null;
+    }
+
+    private static CompletableFuture<GzipIndex> build(File file) {
+        return CompletableFuture.supplyAsync(
+                () -> {
+                    try {
+                        return of(file);
+                    } catch (IOException e) {
+                        LOGGER.log(Level.FINE, "Failed to index " + file, e);
+                        return null;
+                    } finally {
+                        BUILDS.remove(file); // waits until this was added, if need be
+                    }
+                },
+                BUILDER);
+    }
+
+    /**
+     * Gets the index of the given file, building it right away if necessary.
+     */
+    static GzipIndex of(File file) throws IOException {
+        file = file.getAbsoluteFile();
+        Stamp stamp = Stamp.of(file);
+        synchronized (INDICES) {
+            GzipIndex index = INDICES.get(file);
+            if (index != null && index.stamp.equals(stamp)) {
+                return index;
+            }
+        }
+
+        Path sidecar = sidecarOf(file);
+        GzipIndex index = load(sidecar, stamp);
+        if (index == null) {
+            try (InputStream in = openAt(file, 0)) {
+                Decoder decoder = new Decoder(in, SPAN);
+                decoder.decode();
+                index = decoder.toIndex(stamp);
+            }
+            save(index, sidecar);
+        }
+        synchronized (INDICES) {
+            INDICES.put(file, index);
+        }
+        return index;
+    }
+
+    /*package for test*/ static Path sidecarOf(File file) {
+        if (DIR == null) {
+            return new File(file.getPath() + ".index").toPath();
+        }
+        // flatten the path into a name that's unique enough, yet still tells where it came from
+        String path = file.getAbsolutePath();
+        return new File(DIR, file.getName() + "-" + Integer.toHexString(path.hashCode()) + ".index").toPath();
+    }
+
+    private static GzipIndex load(Path sidecar, Stamp stamp) {
+        if (!Files.isRegularFile(sidecar)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(sidecar)))) {
+            if (in.readInt() != MAGIC || !new Stamp(in.readLong(), in.readLong(), in.readLong()).equals(stamp)) {
+                return null;
+            }
+            long length = in.readLong();
+            int members = in.readInt();
+            long[] memberIn = new long[members], memberOut = new long[members];
+            for (int i = 0; i < members; i++) {
+                memberIn[i] = in.readLong();
+                memberOut[i] = in.readLong();
+            }
+            Checkpoint[] checkpoints = new Checkpoint[in.readInt()];
+            for (int i = 0; i < checkpoints.length; i++) {
+                long out = in.readLong();
+                long pos = in.readLong();
+                int bits = in.readByte();
+                byte[] window = new byte[in.readInt()];
+                in.readFully(window);
+                checkpoints[i] = new Checkpoint(out, pos, bits, window);
+            }
+            return new GzipIndex(stamp, length, memberIn, memberOut, checkpoints);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.FINE, "Failed to load " + sidecar, e);
+            return null;
+        }
+    }
+
+    private static void save(GzipIndex index, Path sidecar) {
+        if (index.checkpoints.length == 0 && index.memberIn.length <= 1) {
+            return; // not worth it
+        }
+        Path tmp = null;
+        try {
+            Files.createDirectories(sidecar.getParent());
+            tmp = Files.createTempFile(sidecar.getParent(), "index", null);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeLong(index.stamp.size());
+                out.writeLong(index.stamp.lastModified());
+                out.writeLong(index.stamp.trailer());
+                out.writeLong(index.length);
+                out.writeInt(index.memberIn.length);
+                for (int i = 0; i < index.memberIn.length; i++) {
+                    out.writeLong(index.memberIn[i]);
+                    out.writeLong(index.memberOut[i]);
+                }
+                out.writeInt(index.checkpoints.length);
+                for (Checkpoint cp : index.checkpoints) {
+                    out.writeLong(cp.out);
+                    out.writeLong(cp.in);
+                    out.writeByte(cp.bits);
+                    out.writeInt(cp.window.length);
+                    out.write(cp.window);
+                }
+            }
+            Files.move(tmp, sidecar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            // the directory may well be read-only; we can still use the index while we have it
+            LOGGER.log(Level.FINE, "Failed to save " + sidecar, e);
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException x) {
+                    e.addSuppressed(x);
+                }
+            }
+        }
+    }
+
+    /**
+     * How often to note a checkpoint, in bytes of text. This is the most that has to be inflated to get to any offset.
+     */
+    /*package for test*/ static long SPAN = Long.getLong(GzipIndex.class.getName() + ".span", 4 * 1024 * 1024);
+
+    /**
+     * Directory to save indices in, instead of next to the files.
+     */
+    private static final String DIR = System.getProperty(GzipIndex.class.getName() + ".dir");
+
+    private static final int MAGIC = 0x475a4932; // GZI2
+
+    /**
+     * Recently used indices.
+     */
+    private static final Map<File, GzipIndex> INDICES = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<File, GzipIndex> eldest) {
+            return size() > 16;
+        }
+    };
+
+    /**
+     * Indices being built, so that each is only built once.
+     */
+    private static final Map<File, CompletableFuture<GzipIndex>> BUILDS = new ConcurrentHashMap<>();
+
+    /**
+     * Threads to build indices on, as that takes about as long as reading the whole file.
+     */
+    private static final ExecutorService BUILDER;
+
+    static {
+        ThreadPoolExecutor e = new ThreadPoolExecutor(2, 2, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "GzipIndex builder");
+            t.setDaemon(true);
+            return t;
+        });
+        e.allowCoreThreadTimeOut(true);
+        BUILDER = e;
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(GzipIndex.class.getName());
+}
@@ -25,6 +25,11 @@
 
 package org.kohsuke.stapler.framework.io;
 
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.Closeable;
 import java.io.DataInputStream;
@@ -33,14 +38,23 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.RandomAccessFile;
 import java.io.Reader;
 import java.io.Writer;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.StandardOpenOption;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.zip.GZIPInputStream;
 import net.sf.json.JSONObject;
 import org.apache.commons.io.output.CountingOutputStream;
@@ -94,10 +108,17 @@ public class LargeText {
 
     private final Source source;
 
+    /**
+     * Shared memory-mapped view of the file, if {@link #MMAP} is on and the file is not compressed.
+     */
+    private final MappedFile mapped;
+
     protected final Charset charset;
 
     private volatile boolean completed;
 
+    private final GrowthNotifier notifier = new GrowthNotifier(this);
+
     private JSONObject streamingMeta;
 
     public LargeText(File file, boolean completed) {
@@ -131,15 +152,18 @@ public class LargeText {
     public LargeText(final File file, Charset charset, boolean completed, boolean transparentGunzip) {
         this.charset = charset;
         if (transparentGunzip && GzipAwareSession.isGzipStream(file)) {
+            this.mapped = null;
             this.source = new Source() {
                 @Override
                 public Session open() throws IOException {
-                    return new GzipAwareSession(file);
+                    GzipIndex index = GZIP_INDEX ? GzipIndex.get(file) : null;
+                    return index != null ? new IndexedGzipSession(file, index) : new GzipAwareSession(file);
                 }
 
                 @Override
                 public long length() {
-                    return GzipAwareSession.getGzipStreamSize(file);
+                    GzipIndex index = GZIP_INDEX ? GzipIndex.get(file) : null;
+                    return index != null ? index.length : GzipAwareSession.getGzipStreamSize(file);
                 }
 
                 @Override
@@ -148,10 +172,11 @@ public class LargeText {
                 }
             };
         } else {
+            this.mapped = MMAP ? MappedFile.of(file) : null;
             this.source = new Source() {
                 @Override
                 public Session open() throws IOException {
-                    return new FileSession(file);
+                    return mapped != null ? mapped.open() : new FileSession(file);
                 }
 
                 @Override
@@ -174,6 +199,7 @@ public class LargeText {
 
     public LargeText(final ByteBuffer memory, Charset charset, boolean completed) {
         this.charset = charset;
+        this.mapped = null;
         this.source = new Source() {
             @Override
             public Session open() throws IOException {
@@ -196,11 +222,13 @@ public class LargeText {
     public LargeText(Source source, Charset charset, boolean completed) {
         this.charset = charset;
         this.source = source;
+        this.mapped = null;
         this.completed = completed;
     }
 
     public void markAsComplete() {
         completed = true;
+        notifier.fire();
     }
 
     public boolean isComplete() {
@@ -343,6 +371,19 @@ public class LargeText {
         return accept.startsWith("multipart/form-data");
     }
 
+    /**
+     * Detect use of the server-sent events mode.
+     * @param req The current request.
+     * @return true if the client wants new text to be pushed to it as server-sent events.
+     * @see #doProgressText(StaplerRequest2, StaplerResponse2)
+     */
+    public boolean isEventStreamRequest(StaplerRequest2 req) {
+        if (req == null) return false;
+        String accept = req.getHeader("Accept");
+        if (accept == null || accept.isEmpty()) return false;
+        return accept.startsWith("text/event-stream") && req.isAsyncSupported();
+    }
+
     /**
      * Add additional meta data to a streaming response.
      * @param key The field to (over)write meta data for.
@@ -354,6 +395,18 @@ public class LargeText {
     }
 
     private long findNextLineStart(long start, long stop) throws IOException {
+        if (mapped != null) {
+            if (start > mapped.refresh()) {
+                // The log file rolled over, send it in full.
+                return 0;
+            }
+            long newline = mapped.indexOfNewline(start, stop - 1);
+            if (newline >= 0) {
+                putStreamingMeta("startFromNewLine", true);
+                return newline + 1;
+            }
+            return start;
+        }
         try (var f = source.open()) {
             if (f.skip(start) != start) {
                 // The log file rolled over, send it in full.
@@ -430,11 +483,337 @@ public class LargeText {
         }
     }
 
+    /**
+     * Keeps the request open, and sends the text as server-sent events as it grows.
+     *
+     * <p>
+     * Each event carries what {@link #writeLogTo(long, Writer)} writes as its data, and the offset it returns
+     * as its ID, so that a client that reconnects picks up where it left off through {@code Last-Event-ID}.
+     * The text is sent as it's written, but as clients drop events that weren't received in full, a client never
+     * sees part of one. The content type that {@link #setContentType(StaplerResponse2)} sets for the text is sent
+     * in the {@code X-Text-Content-Type} header.
+     * A {@code reset} event says that the text rolled over and is sent again from the start,
+     * and a {@code complete} event ends the stream once the text is complete.
+     */
+    private void doProgressTextEvents(StaplerRequest2 req, StaplerResponse2 rsp) throws IOException {
+        long start;
+        try {
+            String s = req.getHeader("Last-Event-ID");
+            if (s != null) {
+                start = Long.parseLong(s.trim());
+                if (start < 0) {
+                    throw new NumberFormatException(s);
+                }
+            } else {
+                s = req.getParameter("start");
+                start = (s != null) ? Long.parseLong(s) : 0;
+            }
+        } catch (NumberFormatException e) {
+            rsp.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid offset: " + e.getMessage());
+            return;
+        }
+        if (start < 0) {
+            long length = source.exists() ? source.length() : 0;
+            start = length <= -start ? 0 : findNextLineStart(length + start, length);
+        }
+
+        setContentType(rsp);
+        String contentType = rsp.getContentType();
+        if (contentType != null && !contentType.contains("\r") && !contentType.contains("\n")) {
+            rsp.setHeader("X-Text-Content-Type", contentType);
+        }
+        rsp.setContentType("text/event-stream;charset=UTF-8");
+        rsp.setHeader("Cache-Control", "no-cache");
+        rsp.setStatus(HttpServletResponse.SC_OK);
+
+        AsyncContext ctx = req.startAsync();
+        ctx.setTimeout(EVENT_STREAM_TIMEOUT);
+        ServletOutputStream out = rsp.getOutputStream();
+        EventStream events = new EventStream(ctx, out, start);
+        ctx.addListener(events);
+        out.setWriteListener(events);
+        notifier.add(events);
+        events.run(); // send what we already have
+    }
+
+    /**
+     * Follows the text for one client of {@link #doProgressTextEvents(StaplerRequest2, StaplerResponse2)}.
+     *
+     * <p>
+     * The response is written without blocking, so that a client that stops reading is dropped
+     * after {@link #EVENT_WRITE_TIMEOUT} instead of holding up one of the {@link GrowthNotifier#WRITERS} for good.
+     */
+    private final class EventStream implements Runnable, AsyncListener, WriteListener {
+        private final AsyncContext ctx;
+        private final ServletOutputStream out;
+        private final Writer w;
+        /**
+         * Offset of the text we'll send next.
+         */
+        private long pos;
+
+        private final AtomicBoolean dirty = new AtomicBoolean();
+        private final AtomicBoolean busy = new AtomicBoolean();
+        private volatile boolean done;
+
+        private final ReentrantLock lock = new ReentrantLock();
+        /**
+         * Signalled when {@link #out} may be ready to be written to again.
+         */
+        private final Condition writable = lock.newCondition();
+
+        EventStream(AsyncContext ctx, ServletOutputStream out, long pos) {
+            this.ctx = ctx;
+            this.out = out;
+            this.w = new OutputStreamWriter(
+                    new OutputStream() {
+                        @Override
+                        public void write(int b) throws IOException {
+                            awaitWritable();
+                            out.write(b);
+                        }
+
+                        @Override
+                        public void write(byte[] b, int off, int len) throws IOException {
+                            awaitWritable();
+                            out.write(b, off, len);
+                        }
+
+                        @Override
+                        public void flush() throws IOException {
+                            awaitWritable();
+                            out.flush();
+                        }
+                    },
+                    StandardCharsets.UTF_8);
+            this.pos = pos;
+        }
+
+        /**
+         * Called when the text may have changed. Sends it on another thread, one batch at a time.
+         */
+        @Override
+        public void run() {
+            dirty.set(true);
+            if (!done && busy.compareAndSet(false, true)) {
+                GrowthNotifier.WRITERS.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                while (!done && dirty.getAndSet(false)) {
+                    send();
+                }
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(Level.FINE, "Stopped sending events", e);
+                finish();
+            } finally {
+                busy.set(false);
+            }
+            if (!done && dirty.get()) {
+                run();
+            }
+        }
+
+        private void send() throws IOException {
+            boolean complete = completed; // check this first, so that we don't miss the end
+            long length = source.exists() ? source.length() : 0;
+            if (length < pos) {
+                pos = 0;
+                w.write("event: reset\ndata: \n\n");
+            }
+
+            while (pos < length) {
+                EventWriter data = new EventWriter(w);
+                long next;
+                try {
+                    next = writeLogTo(pos, data);
+                } catch (EOFException e) {
+                    return; // shrunk in the mean time; we'll hear about it again
+                }
+                boolean more = next > pos;
+                if (!more && !data.started) {
+                    break; // no complete line yet
+                }
+                pos = Math.max(pos, next);
+                data.end();
+                w.write("id: " + pos + "\n\n");
+                flush();
+                if (!more) {
+                    break;
+                }
+            }
+
+            if (complete && pos >= length) {
+                w.write("event: complete\nid: " + pos + "\ndata: \n\n");
+                flush();
+                finish();
+            }
+        }
+
+        private void flush() throws IOException {
+            w.flush();
+        }
+
+        /**
+         * Waits until the previous write has gone out, which is what {@link ServletOutputStream#isReady()} checks
+         * in non-blocking mode, for up to {@link #EVENT_WRITE_TIMEOUT}.
+         */
+        private void awaitWritable() throws IOException {
+            lock.lock();
+            try {
+                long left = TimeUnit.MILLISECONDS.toNanos(EVENT_WRITE_TIMEOUT);
+                // isReady() only arranges for onWritePossible to be called once it returns false
+                while (!out.isReady()) {
+                    if (done) {
+                        throw new IOException("Client went away");
+                    }
+                    if (left <= 0) {
+                        throw new IOException("Client didn't read for " + EVENT_WRITE_TIMEOUT + "ms");
+                    }
+                    left = writable.awaitNanos(left);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void wakeUp() {
+            lock.lock();
+            try {
+                writable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void finish() {
+            if (done) {
+                return;
+            }
+            done = true;
+            notifier.remove(this);
+            wakeUp();
+            try {
+                ctx.complete();
+            } catch (IllegalStateException e) {
+                // already completed or timed out
+            }
+        }
+
+        @Override
+        public void onWritePossible() {
+            wakeUp();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            LOGGER.log(Level.FINE, "Failed to send events", t);
+            finish();
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            done = true;
+            notifier.remove(this);
+            wakeUp();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            // the client is expected to reconnect with Last-Event-ID
+            finish();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            finish();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {}
+    }
+
+    /**
+     * Writes text as the data of a server-sent event, one {@code data} field per line.
+     */
+    private static final class EventWriter extends Writer {
+        private final Writer out;
+        private boolean lineStart = true;
+        private boolean cr;
+        /**
+         * Whether anything was written, which then needs to be ended as an event.
+         */
+        boolean started;
+
+        EventWriter(Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(char[] buf, int off, int len) throws IOException {
+            int end = off + len;
+            int i = off;
+            while (i < end) {
+                char c = buf[i];
+                if (c == '\n' && cr) {
+                    cr = false; // the rest of a CRLF
+                    i++;
+                    continue;
+                }
+                if (lineStart) {
+                    out.write("data: ");
+                    lineStart = false;
+                    started = true;
+                }
+                cr = c == '\r';
+                if (c == '\n' || c == '\r') {
+                    out.write('\n');
+                    lineStart = true;
+                    i++;
+                    continue;
+                }
+                int j = i;
+                while (j < end && buf[j] != '\n' && buf[j] != '\r') {
+                    j++;
+                }
+                out.write(buf, i, j - i);
+                i = j;
+            }
+        }
+
+        /**
+         * Ends the last line, which is empty if the text ends with a newline.
+         */
+        void end() throws IOException {
+            if (lineStart) {
+                out.write("data: ");
+            }
+            out.write('\n');
+        }
+
+        @Override
+        public void flush() {
+            // only flushed once the event is complete
+        }
+
+        @Override
+        public void close() {}
+    }
+
     private void doProgressTextImpl(StaplerRequest2 req, StaplerResponse2 rsp) throws IOException {
         if (isStreamingRequest(req)) {
             doProgressTextStreaming(req, rsp);
             return;
         }
+        if (isEventStreamRequest(req)) {
+            doProgressTextEvents(req, rsp);
+            return;
+        }
 
         setContentType(rsp);
         rsp.setStatus(HttpServletResponse.SC_OK);
@@ -472,10 +851,24 @@ public class LargeText {
             rsp.addHeader("X-More-Data", "true");
         }
 
+        if (spool == null && LineEndNormalizingOutputStream.supports(charset) && charset.equals(getCharset(rsp))) {
+            // CR and LF look the same in bytes as in chars, so there's no need to decode the text and encode it again
+            try (var os = rsp.getOutputStream();
+                    var lenos = new LineEndNormalizingOutputStream(os);
+                    var tos = new ThresholdingOutputStream(lenos, length - start)) {
+                writeLogUncounted(start, tos);
+            }
+            return;
+        }
+
         try (var w = rsp.getWriter();
                 var lenw = new LineEndNormalizingWriter(w)) {
             if (spool != null) {
-                spool.writeTo(lenw);
+                try {
+                    spool.writeTo(lenw);
+                } finally {
+                    spool.release();
+                }
             } else {
                 try (var os = new WriterOutputStream(lenw, charset);
                         var tos = new ThresholdingOutputStream(os, length - start)) {
@@ -485,6 +878,21 @@ public class LargeText {
         }
     }
 
+    /**
+     * Encoding of the response, if it's known to us.
+     */
+    private static Charset getCharset(StaplerResponse2 rsp) {
+        String encoding = rsp.getCharacterEncoding();
+        if (encoding == null) {
+            return null;
+        }
+        try {
+            return Charset.forName(encoding);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     /**
      * Whether {@link #doProgressText(StaplerRequest2, StaplerResponse2)} should delegate to {@link #writeLogTo(long, Writer)}.
      * @return true if so (more compatible and allows extra HTTP headers to be set, but less efficient); false (default) for efficiency
@@ -805,6 +1213,51 @@ public class LargeText {
         }
     }
 
+    /**
+     * {@link Session} implementation over a GZIP file with a {@link GzipIndex},
+     * which starts inflating from the checkpoint closest to where it's first asked to skip to.
+     */
+    private static final class IndexedGzipSession implements Session {
+        private final File file;
+        private final GzipIndex index;
+        private InputStream in;
+
+        IndexedGzipSession(File file, GzipIndex index) {
+            this.file = file;
+            this.index = index;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (in != null) {
+                in.close();
+            }
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            if (in == null) {
+                n = Math.max(0, Math.min(n, index.length));
+                in = index.open(file, n);
+                return n;
+            }
+            return in.skip(n);
+        }
+
+        @Override
+        public int read(byte[] buf) throws IOException {
+            return read(buf, 0, buf.length);
+        }
+
+        @Override
+        public int read(byte[] buf, int offset, int length) throws IOException {
+            if (in == null) {
+                in = index.open(file, 0);
+            }
+            return in.read(buf, offset, length);
+        }
+    }
+
     /**
      * {@link Session} implementation over {@link ByteBuffer}.
      */
@@ -840,4 +1293,35 @@ public class LargeText {
      * We cap the # of lines read in one batch to avoid buffering too much in memory.
      */
     private static final int MAX_LINES_READ = 10000;
+
+    /**
+     * How long a server-sent events request is kept open, in milliseconds, before the client has to reconnect.
+     */
+    private static final long EVENT_STREAM_TIMEOUT =
+            Long.getLong(LargeText.class.getName() + ".eventStreamTimeout", TimeUnit.MINUTES.toMillis(5));
+
+    /**
+     * How long a server-sent events client may go without reading, in milliseconds, before it's dropped.
+     * Meanwhile, it takes up one of the {@link GrowthNotifier#WRITERS}.
+     */
+    /*package for test*/ static long EVENT_WRITE_TIMEOUT =
+            Long.getLong(LargeText.class.getName() + ".eventWriteTimeout", TimeUnit.SECONDS.toMillis(10));
+
+    private static final Logger LOGGER = Logger.getLogger(LargeText.class.getName());
+
+    /**
+     * Whether files are read through a memory mapping that's shared by all {@link LargeText}s over the same file,
+     * instead of being opened for each request.
+     * This helps when many clients follow the same large, growing file,
+     * but keeps the file from being deleted on Windows while it's mapped.
+     */
+    /*package for test*/ static boolean MMAP = Boolean.getBoolean(LargeText.class.getName() + ".mmap");
+
+    /**
+     * Whether GZIP files are read through a {@link GzipIndex}, so that reading the end of a large file
+     * doesn't require inflating all of it, once the index has been built in the background.
+     * The index is saved next to the file as {@code *.index} when the directory is writable, or in the directory
+     * given by the {@code org.kohsuke.stapler.framework.io.GzipIndex.dir} system property.
+     */
+    /*package for test*/ static boolean GZIP_INDEX = Boolean.getBoolean(LargeText.class.getName() + ".gzipIndex");
 }
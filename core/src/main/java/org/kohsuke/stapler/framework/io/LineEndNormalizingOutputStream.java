@@ -0,0 +1,65 @@
+package org.kohsuke.stapler.framework.io;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@link LineEndNormalizingWriter} that works on encoded bytes instead of characters.
+ *
+ * <p>
+ * Only correct for encodings where CR and LF are single bytes that never appear
+ * as a part of another character; see {@link #supports(Charset)}.
+ */
+final class LineEndNormalizingOutputStream extends FilterOutputStream {
+
+    private boolean seenCR;
+
+    LineEndNormalizingOutputStream(OutputStream out) {
+        super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (!seenCR && b == LF) {
+            out.write(CRLF);
+        } else {
+            out.write(b);
+        }
+        seenCR = (b == CR);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        int end = off + len;
+        int writeBegin = off;
+
+        for (int i = off; i < end; i++) {
+            byte ch = b[i];
+            if (!seenCR && ch == LF) {
+                // write up to the byte before LF
+                out.write(b, writeBegin, i - writeBegin);
+                out.write(CRLF);
+                writeBegin = i + 1;
+            }
+            seenCR = (ch == CR);
+        }
+
+        out.write(b, writeBegin, end - writeBegin);
+    }
+
+    /**
+     * Whether text in the given encoding can be normalized byte by byte.
+     */
+    static boolean supports(Charset charset) {
+        return charset.equals(StandardCharsets.UTF_8)
+                || charset.equals(StandardCharsets.US_ASCII)
+                || charset.name().startsWith("ISO-8859-");
+    }
+
+    private static final int CR = 0x0D;
+    private static final int LF = 0x0A;
+    private static final byte[] CRLF = {CR, LF};
+}
@@ -0,0 +1,237 @@
+package org.kohsuke.stapler.framework.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Memory-mapped view of a file that's read by {@link LargeText}, shared by everyone reading the same file.
+ *
+ * <p>
+ * The mapping is extended as the file grows, and thrown away if the file shrinks or gets replaced.
+ * Alongside it, we remember where the first newline is in each {@link #BLOCK_SIZE} block of the file,
+ * so that looking for the start of a line doesn't have to go through long stretches without one twice.
+ *
+ * <p>
+ * Note that on Windows, a file can't be deleted while it's mapped,
+ * and that reading a mapping of a file that has since been truncated fails with an {@link InternalError}.
+ * Log files normally only grow, or get replaced by new ones.
+ */
+final class MappedFile {
+    /**
+     * Files are mapped in segments of this size, since a single {@link MappedByteBuffer} can't exceed 2GB.
+     */
+    private static final int SEGMENT_SIZE = 1 << 30;
+
+    /**
+     * Granularity of the newline index.
+     */
+    static final int BLOCK_SIZE = 64 * 1024;
+
+    private static final int UNKNOWN = -2, NONE = -1;
+
+    private final File file;
+
+    /**
+     * Identity of the file when it was mapped, to notice when it's replaced.
+     */
+    private Object fileKey;
+
+    private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+
+    /**
+     * Number of bytes in {@link #segments}.
+     */
+    private volatile long length;
+
+    /**
+     * For each complete block, the offset of the first newline in that block, {@link #NONE}, or {@link #UNKNOWN}.
+     */
+    private volatile int[] firstNewline = new int[0];
+
+    private MappedFile(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Maps the current contents of the file, and returns a session that reads them.
+     */
+    LargeText.Session open() throws IOException {
+        refresh();
+        return new MappedSession();
+    }
+
+    /**
+     * Makes sure the whole file is mapped.
+     *
+     * @return the length of the file
+     */
+    synchronized long refresh() throws IOException {
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            reset(null);
+            return 0;
+        }
+        long size = attrs.size();
+        if (size < length || !Objects.equals(attrs.fileKey(), fileKey)) {
+            reset(attrs.fileKey()); // rolled over
+        }
+        if (size == length) {
+            return size;
+        }
+
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            size = Math.max(length, ch.size()); // it may have grown since we looked
+            int n = (int) ((size + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+            MappedByteBuffer[] s = Arrays.copyOf(segments, n);
+            // the last segment we have may be partial, so remap from there
+            for (int i = Math.max(0, (int) (length / SEGMENT_SIZE)); i < n; i++) {
+                long pos = (long) i * SEGMENT_SIZE;
+                s[i] = ch.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(SEGMENT_SIZE, size - pos));
+            }
+            segments = s;
+        }
+
+        int[] index = Arrays.copyOf(firstNewline, (int) (size / BLOCK_SIZE));
+        Arrays.fill(index, firstNewline.length, index.length, UNKNOWN);
+        firstNewline = index;
+        length = size;
+        return size;
+    }
+
+    private void reset(Object fileKey) {
+        this.fileKey = fileKey;
+        segments = new MappedByteBuffer[0];
+        firstNewline = new int[0];
+        length = 0;
+    }
+
+    /**
+     * Finds the first {@code '\n'} in the given range of the file.
+     *
+     * @return -1 if there's none.
+     */
+    long indexOfNewline(long from, long to) throws IOException {
+        refresh();
+        MappedByteBuffer[] segments = this.segments;
+        int[] index = firstNewline;
+        to = Math.min(to, sizeOf(segments));
+
+        long pos = from;
+        while (pos < to) {
+            int block = (int) (pos / BLOCK_SIZE);
+            long blockStart = (long) block * BLOCK_SIZE;
+            if (pos == blockStart && block < index.length && index[block] != UNKNOWN) {
+                // we've been here before
+                if (index[block] == NONE || blockStart + index[block] >= to) {
+                    pos = blockStart + BLOCK_SIZE;
+                    continue;
+                }
+                return blockStart + index[block];
+            }
+
+            long end = Math.min(to, blockStart + BLOCK_SIZE);
+            long found = scan(segments, pos, end);
+            if (pos == blockStart && end == blockStart + BLOCK_SIZE && block < index.length) {
+                index[block] = found < 0 ? NONE : (int) (found - blockStart); // benign race
+            }
+            if (found >= 0) {
+                return found;
+            }
+            pos = end;
+        }
+        return -1;
+    }
+
+    private static long scan(MappedByteBuffer[] segments, long from, long to) {
+        for (long pos = from; pos < to; pos++) {
+            if (segments[(int) (pos / SEGMENT_SIZE)].get((int) (pos % SEGMENT_SIZE)) == '\n') {
+                return pos;
+            }
+        }
+        return -1;
+    }
+
+    private static long sizeOf(MappedByteBuffer[] segments) {
+        int n = segments.length;
+        return n == 0 ? 0 : (long) (n - 1) * SEGMENT_SIZE + segments[n - 1].limit();
+    }
+
+    /**
+     * Reads a snapshot of the file as it was when the session was opened.
+     */
+    private final class MappedSession implements LargeText.Session {
+        private final MappedByteBuffer[] segments = MappedFile.this.segments;
+        private final long end = sizeOf(segments);
+        private long pos;
+
+        @Override
+        public long skip(long n) {
+            if (n <= 0) return 0;
+            long newPos = Math.min(end, pos + n);
+            long skipped = newPos - pos;
+            pos = newPos;
+            return skipped;
+        }
+
+        @Override
+        public int read(byte[] buf) {
+            return read(buf, 0, buf.length);
+        }
+
+        @Override
+        public int read(byte[] buf, int offset, int len) {
+            if (pos >= end) {
+                return -1;
+            }
+            int index = (int) (pos % SEGMENT_SIZE);
+            MappedByteBuffer segment = segments[(int) (pos / SEGMENT_SIZE)];
+            int n = (int) Math.min(Math.min(len, end - pos), segment.limit() - index);
+            segment.get(index, buf, offset, n);
+            pos += n;
+            return n;
+        }
+
+        @Override
+        public void close() {}
+    }
+
+    /**
+     * Recently used files.
+     */
+    private static final Map<File, MappedFile> FILES = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<File, MappedFile> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private static final int CACHE_SIZE = Integer.getInteger(MappedFile.class.getName() + ".cacheSize", 64);
+
+    static MappedFile of(File file) {
+        file = file.getAbsoluteFile();
+        synchronized (FILES) {
+            return FILES.computeIfAbsent(file, MappedFile::new);
+        }
+    }
+
+    /**
+     * Forgets all the mappings. For tests.
+     */
+    static void clear() {
+        synchronized (FILES) {
+            FILES.clear();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package org.kohsuke.stapler;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.kohsuke.stapler.test.AbstractStaplerTest;
+import org.mockito.ArgumentCaptor;
+
+class ByteRangeTest extends AbstractStaplerTest {
+
+    @TempDir
+    private File tmp;
+
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+    @Override
+    @BeforeEach
+    protected void beforeEach() throws Exception {
+        super.beforeEach();
+        when(rawResponse.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                body.write(b);
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                // ignores
+            }
+        });
+    }
+
+    @Test
+    void parse() {
+        assertEquals(List.of(new ByteRange(5, 301)), ByteRange.parse("bytes=5-300", 1000));
+        assertEquals(List.of(new ByteRange(100, 1000)), ByteRange.parse("bytes=100-", 1000));
+        assertEquals(List.of(new ByteRange(900, 1000)), ByteRange.parse("bytes=-100", 1000));
+        assertEquals(List.of(new ByteRange(0, 1000)), ByteRange.parse("bytes=-2000", 1000));
+        assertEquals(List.of(new ByteRange(990, 1000)), ByteRange.parse("bytes=990-5000", 1000));
+        assertEquals(List.of(new ByteRange(0, 10), new ByteRange(20, 30)), ByteRange.parse("bytes=0-9, 20-29", 1000));
+
+        assertTrue(ByteRange.parse("bytes=2000-", 1000).isEmpty());
+        assertNull(ByteRange.parse("items=0-9", 1000));
+        assertNull(ByteRange.parse("bytes=9-0", 1000));
+        assertNull(ByteRange.parse("bytes=-", 1000));
+        assertNull(ByteRange.parse("bytes=abc", 1000));
+    }
+
+    @Test
+    void parseCoalesces() {
+        assertEquals(
+                List.of(new ByteRange(0, 30), new ByteRange(50, 60)),
+                ByteRange.parse("bytes=50-59, 10-29, 0-9, 5-14", 1000));
+        assertEquals(List.of(new ByteRange(0, 1000)), ByteRange.parse("bytes=0-499, 500-", 1000));
+
+        // asking for more than there is
+        assertNull(ByteRange.parse("bytes=0-, 0-", 1000));
+        assertNull(ByteRange.parse("bytes=0-599, 400-999", 1000));
+    }
+
+    @Test
+    void singleRangeOfFile() throws Exception {
+        File f = file("0123456789");
+        when(rawRequest.getHeader("Range")).thenReturn("bytes=2-5");
+
+        stapler.serveStaticResource(rawRequest, response, new FileInputStream(f), 0, 0, f.length(), "x.bin");
+
+        verify(rawResponse).setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        verify(rawResponse).setHeader("Content-Range", "bytes 2-5/10");
+        verify(rawResponse).setHeader("Content-Length", "4");
+        assertEquals("2345", body.toString(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void multipleRangesOfFile() throws Exception {
+        File f = file("0123456789");
+        when(rawRequest.getHeader("Range")).thenReturn("bytes=0-1,-2");
+
+        stapler.serveStaticResource(rawRequest, response, new FileInputStream(f), 0, 0, f.length(), "x.bin");
+
+        verify(rawResponse).setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        ArgumentCaptor<String> type = ArgumentCaptor.forClass(String.class);
+        verify(rawResponse, atLeastOnce()).setContentType(type.capture());
+        String contentType = type.getValue();
+        assertThat(contentType, startsWith("multipart/byteranges; boundary="));
+        String boundary = contentType.substring(contentType.indexOf('=') + 1);
+
+        String s = body.toString(StandardCharsets.US_ASCII);
+        assertThat(s, startsWith("--" + boundary + "\r\n"));
+        assertThat(s, containsString("Content-Range: bytes 0-1/10\r\n\r\n01\r\n--" + boundary + "\r\n"));
+        assertThat(s, containsString("Content-Range: bytes 8-9/10\r\n\r\n89\r\n--" + boundary + "--\r\n"));
+        verify(rawResponse).setHeader("Content-Length", Integer.toString(body.size()));
+    }
+
+    @Test
+    void unsatisfiableRange() throws Exception {
+        File f = file("0123456789");
+        when(rawRequest.getHeader("Range")).thenReturn("bytes=20-");
+
+        stapler.serveStaticResource(rawRequest, response, new FileInputStream(f), 0, 0, f.length(), "x.bin");
+
+        verify(rawResponse).setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+        verify(rawResponse).setHeader("Content-Range", "bytes */10");
+        assertEquals(0, body.size());
+    }
+
+    @Test
+    void wholeFile() throws Exception {
+        File f = file("0123456789");
+
+        stapler.serveStaticResource(rawRequest, response, new FileInputStream(f), 0, 0, f.length(), "x.bin");
+
+        verify(rawResponse, never()).setStatus(anyInt());
+        verify(rawResponse).setHeader("Content-Length", "10");
+        verify(rawResponse, never()).setHeader(eq("Content-Range"), anyString());
+        assertEquals("0123456789", body.toString(StandardCharsets.US_ASCII));
+    }
+
+    private File file(String content) throws IOException {
+        File f = new File(tmp, "data.bin");
+        Files.writeString(f.toPath(), content, StandardCharsets.US_ASCII);
+        return f;
+    }
+}
@@ -0,0 +1,136 @@
+package org.kohsuke.stapler;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CompressingOutputStreamTest {
+
+    @BeforeEach
+    void enable() {
+        CompressingOutputStream.ENABLED = true;
+    }
+
+    @AfterEach
+    void reset() {
+        CompressingOutputStream.ENABLED = false;
+    }
+
+    @Test
+    void negotiate() {
+        assertNull(CompressingOutputStream.negotiate(null));
+        assertNull(CompressingOutputStream.negotiate("identity"));
+        assertNull(CompressingOutputStream.negotiate("gzip;q=0, deflate;q=0"));
+        assertNull(CompressingOutputStream.negotiate("*;q=0"));
+        assertEquals(CompressingOutputStream.Encoding.GZIP, CompressingOutputStream.negotiate("gzip, deflate, br"));
+        assertEquals(CompressingOutputStream.Encoding.GZIP, CompressingOutputStream.negotiate("*"));
+        assertEquals(CompressingOutputStream.Encoding.DEFLATE, CompressingOutputStream.negotiate("deflate"));
+        assertEquals(
+                CompressingOutputStream.Encoding.DEFLATE, CompressingOutputStream.negotiate("gzip;q=0.5, deflate"));
+        assertEquals(CompressingOutputStream.Encoding.DEFLATE, CompressingOutputStream.negotiate("gzip;q=0, *"));
+    }
+
+    @Test
+    void isCompressible() {
+        assertTrue(CompressingOutputStream.isCompressible(null));
+        assertTrue(CompressingOutputStream.isCompressible("text/html;charset=UTF-8"));
+        assertTrue(CompressingOutputStream.isCompressible("application/json"));
+        assertTrue(CompressingOutputStream.isCompressible("image/svg+xml"));
+        assertFalse(CompressingOutputStream.isCompressible("image/png"));
+        assertFalse(CompressingOutputStream.isCompressible("application/zip"));
+        assertFalse(CompressingOutputStream.isCompressible("video/mp4"));
+    }
+
+    @Test
+    void largeBodyIsCompressed() throws IOException {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        HttpServletResponse rsp = response("text/plain");
+        OutputStream out = CompressingOutputStream.create(request("gzip"), rsp, raw);
+
+        byte[] data = new byte[CompressingOutputStream.THRESHOLD * 4];
+        Arrays.fill(data, (byte) 'a');
+        out.write(data);
+        out.close();
+
+        verify(rsp).addHeader("Vary", "Accept-Encoding");
+        verify(rsp).setHeader("Content-Encoding", "gzip");
+        assertTrue(raw.size() < data.length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(raw.toByteArray()))) {
+            assertArrayEquals(data, in.readAllBytes());
+        }
+    }
+
+    @Test
+    void smallBodyIsSentAsIs() throws IOException {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        HttpServletResponse rsp = response("text/plain");
+        OutputStream out = CompressingOutputStream.create(request("gzip"), rsp, raw);
+
+        out.write("hello".getBytes());
+        out.close();
+
+        verify(rsp, never()).setHeader(anyString(), anyString());
+        assertEquals("hello", raw.toString());
+    }
+
+    @Test
+    void compressedTypeIsSentAsIs() throws IOException {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        HttpServletResponse rsp = response("image/png");
+        OutputStream out = CompressingOutputStream.create(request("gzip"), rsp, raw);
+
+        byte[] data = new byte[CompressingOutputStream.THRESHOLD * 4];
+        out.write(data);
+        out.close();
+
+        verify(rsp, never()).setHeader(anyString(), anyString());
+        assertEquals(data.length, raw.size());
+    }
+
+    @Test
+    void noAcceptEncoding() {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        assertSame(raw, CompressingOutputStream.create(request(null), response("text/plain"), raw));
+    }
+
+    @Test
+    void disabledByDefault() {
+        CompressingOutputStream.ENABLED = false;
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        HttpServletResponse rsp = response("text/plain");
+        assertSame(raw, CompressingOutputStream.create(request("gzip"), rsp, raw));
+        verify(rsp, never()).addHeader(anyString(), anyString());
+    }
+
+    private static HttpServletRequest request(String acceptEncoding) {
+        HttpServletRequest req = mock(HttpServletRequest.class);
+        when(req.getHeader("Accept-Encoding")).thenReturn(acceptEncoding);
+        return req;
+    }
+
+    private static HttpServletResponse response(String contentType) {
+        HttpServletResponse rsp = mock(HttpServletResponse.class);
+        when(rsp.getContentType()).thenReturn(contentType);
+        return rsp;
+    }
+}
@@ -0,0 +1,52 @@
+package org.kohsuke.stapler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.Test;
+
+class DiagnosticContextTest {
+
+    @Test
+    void pushAndPop() {
+        DiagnosticContext.push("request");
+        try {
+            DiagnosticContext.push("view");
+            try {
+                assertEquals(List.of("request", "view"), DiagnosticContext.current());
+            } finally {
+                DiagnosticContext.pop();
+            }
+            assertEquals(List.of("request"), DiagnosticContext.current());
+        } finally {
+            DiagnosticContext.pop();
+        }
+        assertEquals(List.of(), DiagnosticContext.current());
+        assertFalse(DiagnosticContext.dump().containsKey(Thread.currentThread()));
+    }
+
+    @Test
+    void dumpOtherThreads() throws Exception {
+        CountDownLatch pushed = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        Thread t = new Thread(() -> {
+            DiagnosticContext.push("busy");
+            try {
+                pushed.countDown();
+                done.await();
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            } finally {
+                DiagnosticContext.pop();
+            }
+        });
+        t.start();
+        pushed.await();
+        assertEquals(List.of("busy"), DiagnosticContext.dump().get(t));
+        done.countDown();
+        t.join();
+        assertFalse(DiagnosticContext.dump().containsKey(t));
+    }
+}
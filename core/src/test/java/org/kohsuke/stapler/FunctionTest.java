@@ -0,0 +1,113 @@
+package org.kohsuke.stapler;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import org.junit.jupiter.api.Test;
+
+class FunctionTest {
+
+    @Test
+    void instanceMethodWithPrimitives() throws Exception {
+        Function f = new Function.InstanceFunction(Target.class.getMethod("add", int.class, long.class));
+        assertEquals(5L, f.invoke(null, null, new Target(), 2, 3L));
+    }
+
+    @Test
+    void staticMethod() throws Exception {
+        Function f = new Function.StaticFunction(Target.class.getMethod("greet", Target.class, String.class));
+        Target t = new Target();
+        assertEquals("hello world", f.invoke(null, null, null, t, "world"));
+        assertEquals("hello world", f.invoke(null, null, new Object(), t, "world"));
+    }
+
+    @Test
+    void voidMethod() throws Exception {
+        Function f = new Function.InstanceFunction(Target.class.getMethod("touch"));
+        Target t = new Target();
+        assertNull(f.invoke(null, null, t));
+        assertEquals(1, t.touched);
+    }
+
+    @Test
+    void varargsArePassedAsArray() throws Exception {
+        Function f = new Function.InstanceFunction(Target.class.getMethod("join", String.class, String[].class));
+        assertEquals("a,b", f.invoke(null, null, new Target(), ",", new String[] {"a", "b"}));
+        assertEquals("", f.invoke(null, null, new Target(), ",", new String[0]));
+    }
+
+    @Test
+    void exceptionsAreWrapped() throws Exception {
+        Target t = new Target();
+        InvocationTargetException e = assertThrows(
+                InvocationTargetException.class,
+                () -> new Function.InstanceFunction(Target.class.getMethod("fail")).invoke(null, null, t));
+        assertSame(t.failure, e.getCause());
+
+        e = assertThrows(
+                InvocationTargetException.class,
+                () -> new Function.StaticFunction(Target.class.getMethod("failStatically"))
+                        .invoke(null, null, null));
+        assertEquals(IllegalStateException.class, e.getCause().getClass());
+    }
+
+    @Test
+    void wrongArgumentCountIsRejectedLikeReflection() throws Exception {
+        Function f = new Function.InstanceFunction(Target.class.getMethod("add", int.class, long.class));
+        assertThrows(IllegalArgumentException.class, () -> f.invoke(null, null, new Target(), 2));
+    }
+
+    @Test
+    void spreadInvokerHasFixedShape() throws Throwable {
+        Method m = Target.class.getMethod("join", String.class, String[].class);
+        MethodHandle h = MethodHandleFactory.getSpreadInvoker(m, MethodHandleFactory.get(m));
+        assertEquals("a-b", (Object) h.invokeExact((Object) new Target(), new Object[] {"-", new String[] {"a", "b"}}));
+
+        m = Target.class.getMethod("greet", Target.class, String.class);
+        h = MethodHandleFactory.getSpreadInvoker(m, MethodHandleFactory.get(m));
+        assertEquals("hello you", (Object) h.invokeExact((Object) null, new Object[] {new Target(), "you"}));
+
+        m = Target.class.getMethod("touch");
+        h = MethodHandleFactory.getSpreadInvoker(m, MethodHandleFactory.get(m));
+        Target t = new Target();
+        assertNull((Object) h.invokeExact((Object) t, new Object[0]));
+        assertEquals(1, t.touched);
+        assertArrayEquals(new Class<?>[] {Object.class, Object[].class}, h.type().parameterArray());
+    }
+
+    public static class Target {
+        int touched;
+        final IOException failure = new IOException("expected");
+
+        public long add(int a, long b) {
+            return a + b;
+        }
+
+        public static String greet(Target t, String name) {
+            return "hello " + name;
+        }
+
+        public void touch() {
+            touched++;
+        }
+
+        public String join(String separator, String... parts) {
+            return String.join(separator, parts);
+        }
+
+        public void fail() throws IOException {
+            throw failure;
+        }
+
+        public static void failStatically() {
+            throw new IllegalStateException("expected");
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package org.kohsuke.stapler;
 
+import java.util.List;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.kohsuke.stapler.lang.Klass;
@@ -18,4 +19,48 @@ class MetaClassTest {
         // in fact, there should be no name based dispatchers at all
         Assertions.assertFalse(metaClass.dispatchers.stream().anyMatch(d -> d instanceof NameBasedDispatcher));
     }
+
+    @Test
+    void dispatchTablePreservesOrder() {
+        MetaClass.LEGACY_GETTER_MODE = true;
+        MetaClass.LEGACY_WEB_METHOD_MODE = true;
+        try {
+            MetaClass metaClass = new MetaClass(new WebApp(new MockServletContext()), Klass.java(Dispatchable.class));
+            DispatchTable table = metaClass.getDispatchTable();
+
+            List<Dispatcher> foo = table.candidates("foo");
+            Assertions.assertEquals(
+                    metaClass.dispatchers.stream()
+                            .filter(d -> !(d instanceof NameBasedDispatcher nbd) || nbd.name.equals("foo"))
+                            .toList(),
+                    foo);
+            Assertions.assertTrue(foo.stream().anyMatch(NameBasedDispatcher.class::isInstance));
+
+            List<Dispatcher> unknown = table.candidates("unknown");
+            Assertions.assertFalse(unknown.isEmpty());
+            Assertions.assertTrue(unknown.stream().noneMatch(NameBasedDispatcher.class::isInstance));
+            Assertions.assertEquals(unknown, table.candidates(null));
+        } finally {
+            MetaClass.LEGACY_GETTER_MODE = false;
+            MetaClass.LEGACY_WEB_METHOD_MODE = false;
+        }
+    }
+
+    public static class Dispatchable {
+        public Object getFoo() {
+            return null;
+        }
+
+        public Object getBar(String token) {
+            return null;
+        }
+
+        public HttpResponse doFoo() {
+            return null;
+        }
+
+        public Object getDynamic(String token) {
+            return null;
+        }
+    }
 }
@@ -0,0 +1,46 @@
+package org.kohsuke.stapler;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class ReflectionUtilsTest {
+
+    @Test
+    void isOverridden() {
+        for (int i = 0; i < 2; i++) { // second round is answered from the cache
+            assertTrue(ReflectionUtils.isOverridden(Base.class, Derived.class, "foo", String.class));
+            assertFalse(ReflectionUtils.isOverridden(Base.class, Derived.class, "foo"));
+            assertFalse(ReflectionUtils.isOverridden(Base.class, Base.class, "foo", String.class));
+            assertTrue(ReflectionUtils.isOverridden(Base.class, MoreDerived.class, "foo", String.class));
+            assertFalse(ReflectionUtils.isOverridden(Derived.class, MoreDerived.class, "foo", String.class));
+        }
+    }
+
+    @Test
+    void isOverriddenKeepsReportingErrors() {
+        for (int i = 0; i < 2; i++) {
+            assertThrows(
+                    IllegalArgumentException.class,
+                    () -> ReflectionUtils.isOverridden(Base.class, Derived.class, "bar", String.class));
+            assertThrows(
+                    IllegalArgumentException.class,
+                    () -> ReflectionUtils.isOverridden(Derived.class, Base.class, "foo", String.class));
+        }
+    }
+
+    public static class Base {
+        public void foo() {}
+
+        public void foo(String s) {}
+    }
+
+    public static class Derived extends Base {
+        @Override
+        public void foo(String s) {}
+    }
+
+    public static class MoreDerived extends Derived {}
+}
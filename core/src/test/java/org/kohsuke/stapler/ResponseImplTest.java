@@ -1,5 +1,7 @@
 package org.kohsuke.stapler;
 
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -7,6 +9,8 @@ import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.WriteListener;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.kohsuke.stapler.test.AbstractStaplerTest;
@@ -42,6 +46,25 @@ class ResponseImplTest extends AbstractStaplerTest {
         });
     }
 
+    @Test
+    void compressedWriterIsTheWriterUnlessCompressing() throws IOException {
+        PrintWriter w = new PrintWriter(new StringWriter());
+        when(rawResponse.getWriter()).thenReturn(w);
+        when(rawRequest.getHeader("Accept-Encoding")).thenReturn("gzip");
+
+        // compression is off by default
+        assertSame(w, response.getCompressedWriter(rawRequest));
+
+        CompressingOutputStream.ENABLED = true;
+        try {
+            when(rawRequest.getHeader("Accept-Encoding")).thenReturn("identity");
+            assertSame(w, response.getCompressedWriter(rawRequest));
+        } finally {
+            CompressingOutputStream.ENABLED = false;
+        }
+        verify(rawResponse, never()).getOutputStream();
+    }
+
     @Test
     void testSendRedirectRelative() throws IOException {
         response.sendRedirect(HttpServletResponse.SC_SEE_OTHER, "foobar");
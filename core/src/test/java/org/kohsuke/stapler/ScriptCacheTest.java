@@ -0,0 +1,91 @@
+package org.kohsuke.stapler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ScriptCacheTest {
+
+    private static class Loader extends CachingScriptLoader<String, RuntimeException> {
+        final List<String> loaded = new ArrayList<>();
+
+        @Override
+        protected String loadScript(String name) {
+            loaded.add(name);
+            return name.startsWith("missing") ? null : "script:" + name;
+        }
+
+        @Override
+        protected URL getResource(String name) {
+            return null;
+        }
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        ScriptCache cache = new ScriptCache(2, 2);
+        Loader l = new Loader();
+        cache.put(l, "a", "A");
+        cache.put(l, "b", "B");
+        assertEquals("A", cache.get(l, "a"));
+        cache.put(l, "c", "C");
+
+        assertNull(cache.get(l, "b"));
+        assertEquals("A", cache.get(l, "a"));
+        assertEquals("C", cache.get(l, "c"));
+
+        ScriptCache.Statistics stats = cache.getStatistics();
+        assertEquals(3, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(1, stats.evictions());
+        assertEquals(2, stats.size());
+    }
+
+    @Test
+    void notFoundIsBoundedSeparately() {
+        ScriptCache cache = new ScriptCache(2, 1);
+        Loader l = new Loader();
+        cache.put(l, "a", "A");
+        cache.put(l, "missing1", ScriptCache.NOT_FOUND);
+        cache.put(l, "missing2", ScriptCache.NOT_FOUND);
+
+        assertEquals("A", cache.get(l, "a"));
+        assertNull(cache.get(l, "missing1"));
+        assertSame(ScriptCache.NOT_FOUND, cache.get(l, "missing2"));
+        assertEquals(1, cache.getStatistics().evictions());
+
+        // other loaders have their own entries
+        assertNull(cache.get(new Loader(), "a"));
+        cache.remove(l);
+        assertEquals(0, cache.getStatistics().size());
+    }
+
+    @Test
+    void findScript() {
+        Loader l = new Loader();
+        ScriptCache cache = l.getScriptCache();
+
+        assertEquals("script:foo.jelly", l.findScript("foo.jelly"));
+        assertSame(l.findScript("foo.jelly"), l.findScript("foo.jelly"));
+        assertNull(l.findScript("missing.jelly"));
+        assertNull(l.findScript("missing.jelly"));
+        assertEquals(List.of("foo.jelly", "missing.jelly"), l.loaded);
+        assertEquals(3, cache.getStatistics().hits());
+
+        // everything but index views goes away
+        l.findScript("index.jelly");
+        cache.clear();
+        l.findScript("index.jelly");
+        l.findScript("foo.jelly");
+        assertEquals(List.of("foo.jelly", "missing.jelly", "index.jelly", "foo.jelly"), l.loaded);
+
+        l.clearScripts();
+        l.findScript("index.jelly");
+        assertEquals(List.of("foo.jelly", "missing.jelly", "index.jelly", "foo.jelly", "index.jelly"), l.loaded);
+    }
+}
@@ -4,9 +4,13 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Files;
 import java.util.Arrays;
+import java.util.Locale;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 /**
  * @author Kohsuke Kawaguchi
@@ -103,4 +107,88 @@ class StaplerTest {
     void testGetCurrent() throws Exception {
         assertNull(Stapler.getCurrent(), "may be called outside an HTTP handling thread");
     }
+
+    @Test
+    void localizedResourceSelectionIsRemembered(@TempDir File tmp) throws Exception {
+        Stapler s = new Stapler();
+        s.init(new ServletConfigImpl());
+        File base = touch(tmp, "foo.txt");
+        touch(tmp, "foo_ja.txt");
+        assertEquals("foo_ja.txt", selectByLocale(s, base, Locale.JAPAN));
+
+        // a more specific variant isn't noticed until the resources are rebuilt
+        File specific = touch(tmp, "foo_ja_JP.txt");
+        assertEquals("foo_ja.txt", selectByLocale(s, base, Locale.JAPAN));
+        s.buildResourcePaths();
+        assertEquals("foo_ja_JP.txt", selectByLocale(s, base, Locale.JAPAN));
+
+        // but one that went away is
+        Files.delete(specific.toPath());
+        assertEquals("foo_ja.txt", selectByLocale(s, base, Locale.JAPAN));
+    }
+
+    @Test
+    void missingLocalizedResourceIsRemembered(@TempDir File tmp) throws Exception {
+        Stapler s = new Stapler();
+        s.init(new ServletConfigImpl());
+        File base = touch(tmp, "foo.txt");
+        assertEquals("foo.txt", selectByLocale(s, base, Locale.FRENCH));
+
+        touch(tmp, "foo_fr.txt");
+        assertEquals("foo.txt", selectByLocale(s, base, Locale.FRENCH));
+        s.buildResourcePaths();
+        assertEquals("foo_fr.txt", selectByLocale(s, base, Locale.FRENCH));
+    }
+
+    @Test
+    void localizedResourceSelectionIsNotRememberedWithNoCache(@TempDir File tmp) throws Exception {
+        Stapler s = new Stapler();
+        s.init(new ServletConfigImpl());
+        File base = touch(tmp, "foo.txt");
+        MetaClass.NO_CACHE = true;
+        try {
+            assertEquals("foo.txt", selectByLocale(s, base, Locale.FRENCH));
+            touch(tmp, "foo_fr.txt");
+            assertEquals("foo_fr.txt", selectByLocale(s, base, Locale.FRENCH));
+        } finally {
+            MetaClass.NO_CACHE = false;
+        }
+    }
+
+    @Test
+    void localizedResourceFallbackOrder(@TempDir File tmp) throws Exception {
+        Stapler s = new Stapler();
+        s.init(new ServletConfigImpl());
+        File base = touch(tmp, "foo.txt");
+        touch(tmp, "foo_de.txt");
+        touch(tmp, "foo_de_CH.txt");
+        touch(tmp, "foo_de_CH_1901.txt");
+
+        assertEquals("foo_de_CH_1901.txt", selectByLocale(s, base, new Locale("de", "CH", "1901")));
+        assertEquals("foo_de_CH.txt", selectByLocale(s, base, new Locale("de", "CH", "1996")));
+        assertEquals("foo_de_CH.txt", selectByLocale(s, base, new Locale("de", "CH")));
+        assertEquals("foo_de.txt", selectByLocale(s, base, new Locale("de", "AT")));
+        assertEquals("foo_de.txt", selectByLocale(s, base, Locale.GERMAN));
+        assertEquals("foo.txt", selectByLocale(s, base, Locale.ENGLISH));
+        assertEquals("foo.txt", selectByLocale(s, base, Locale.ROOT));
+    }
+
+    private static File touch(File dir, String name) throws IOException {
+        File f = new File(dir, name);
+        Files.writeString(f.toPath(), name);
+        return f;
+    }
+
+    /**
+     * @return the name of the file that was selected
+     */
+    private static String selectByLocale(Stapler s, File base, Locale locale) throws IOException {
+        Stapler.OpenConnection con = s.selectResourceByLocale(base.toURI().toURL(), locale);
+        try {
+            String url = con.connection.getURL().toString();
+            return url.substring(url.lastIndexOf('/') + 1);
+        } finally {
+            con.stream.close();
+        }
+    }
 }
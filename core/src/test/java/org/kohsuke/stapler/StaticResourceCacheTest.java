@@ -0,0 +1,67 @@
+package org.kohsuke.stapler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class StaticResourceCacheTest {
+
+    @Test
+    void staleEntriesAreDropped() {
+        StaticResourceCache cache = new StaticResourceCache(1024 * 1024);
+        StaticResourceCache.Entry e = cache.put("file:/a.js", 1000, new byte[10], "text/javascript", true);
+
+        assertSame(e, cache.get("file:/a.js", 1000, 10));
+        assertNull(cache.get("file:/a.js", 2000, 10));
+        assertFalse(cache.contains("file:/a.js"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void leastRecentlyUsedIsEvicted() {
+        StaticResourceCache cache = new StaticResourceCache(8 * 100);
+        cache.put("a", 1, new byte[100], "application/octet-stream", false);
+        for (int i = 0; i < 7; i++) {
+            cache.put("b" + i, 1, new byte[100], "application/octet-stream", false);
+        }
+        assertNotNull(cache.get("a", 1, 100)); // touch 'a' so that 'b0' becomes the eldest
+
+        cache.put("c", 1, new byte[100], "application/octet-stream", false);
+        assertTrue(cache.contains("a"));
+        assertFalse(cache.contains("b0"));
+        assertTrue(cache.contains("c"));
+        assertTrue(cache.size() <= 8 * 100);
+    }
+
+    @Test
+    void tooLargeToCache() {
+        StaticResourceCache cache = new StaticResourceCache(8 * 100);
+        assertTrue(cache.accepts(1, 100));
+        assertFalse(cache.accepts(1, 101));
+        assertFalse(cache.accepts(0, 10));
+        assertFalse(cache.accepts(1, -1));
+    }
+
+    @Test
+    void gzipVariant() {
+        StaticResourceCache cache = new StaticResourceCache(1024 * 1024);
+        byte[] text = new byte[4096];
+        Arrays.fill(text, (byte) 'x');
+        StaticResourceCache.Entry e = cache.put("style.css", 1, text, "text/css", true);
+        assertNotNull(e.gzipped);
+        assertTrue(e.gzipped.length < text.length);
+        assertNotEquals(e.etag, e.gzipEtag);
+        assertTrue(e.matches(e.etag));
+        assertTrue(e.matches("\"foo\", W/" + e.gzipEtag));
+        assertFalse(e.matches("\"foo\""));
+
+        assertNull(cache.put("image.png", 1, text, "image/png", false).gzipped);
+    }
+}
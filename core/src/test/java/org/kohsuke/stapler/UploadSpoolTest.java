@@ -0,0 +1,84 @@
+package org.kohsuke.stapler;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.fileupload2.core.DiskFileItem;
+import org.apache.commons.fileupload2.core.DiskFileItemFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class UploadSpoolTest {
+
+    @TempDir
+    private File tmp;
+
+    @Test
+    void largePartsAreSpooledAndTracked() throws Exception {
+        DiskFileItem item = UploadSpool.factory()
+                .fileItemBuilder()
+                .setFieldName("file")
+                .setFileName("data.bin")
+                .get();
+        try (OutputStream out = item.getOutputStream()) {
+            out.write(new byte[DiskFileItemFactory.DEFAULT_THRESHOLD + 1]);
+        }
+        assertFalse(item.isInMemory());
+        Path file = item.getPath();
+        assertTrue(Files.isRegularFile(file));
+        assertTrue(UploadSpool.tracker().isInUse(file));
+        item.delete();
+    }
+
+    @Test
+    void markerGoesAway() throws Exception {
+        UploadSpool.Tracker tracker = new UploadSpool.Tracker();
+        try {
+            Path file = Files.createFile(tmp.toPath().resolve("upload"));
+            Object marker = new Object();
+            tracker.track(file, marker);
+            assertTrue(tracker.isInUse(file));
+
+            WeakReference<Object> ref = new WeakReference<>(marker);
+            marker = null;
+            for (int i = 0; i < 50 && ref.get() != null; i++) {
+                System.gc();
+                Thread.sleep(100);
+            }
+            assertFalse(tracker.isInUse(file));
+        } finally {
+            tracker.exitWhenFinished();
+        }
+    }
+
+    @Test
+    void sweepOnlyDeletesOldFilesNotInUse() throws Exception {
+        UploadSpool.Tracker tracker = new UploadSpool.Tracker();
+        try {
+            long now = System.currentTimeMillis();
+            FileTime old = FileTime.from(now - TimeUnit.DAYS.toMillis(2), TimeUnit.MILLISECONDS);
+            Path stale = Files.createFile(tmp.toPath().resolve("stale"));
+            Files.setLastModifiedTime(stale, old);
+            Path inUse = Files.createFile(tmp.toPath().resolve("in-use"));
+            Files.setLastModifiedTime(inUse, old);
+            Object marker = new Object();
+            tracker.track(inUse, marker);
+            Path recent = Files.createFile(tmp.toPath().resolve("recent"));
+
+            UploadSpool.sweep(tmp.toPath(), tracker, now);
+            assertFalse(Files.exists(stale));
+            assertTrue(Files.exists(inUse));
+            assertTrue(Files.exists(recent));
+            assertTrue(tracker.isInUse(inUse)); // keeps the marker reachable until here
+        } finally {
+            tracker.exitWhenFinished();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.kohsuke.stapler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.kohsuke.stapler.lang.Klass;
+
+class WarmUpTest {
+
+    @Test
+    void reachableClasses() throws Exception {
+        WebApp webApp = new WebApp(new MockServletContext());
+        WarmUp w = webApp.warmUp(List.of(Root.class));
+        assertSame(w, webApp.getWarmUp());
+        w.getFuture().get(1, TimeUnit.MINUTES);
+
+        assertTrue(w.isDone());
+        // Root, Base, Child and Leaf, but not String nor Object
+        assertEquals(4, w.getClassCount());
+        assertEquals(0, w.getFailureCount());
+        assertEquals(0, w.getPendingCount());
+    }
+
+    @Test
+    void index() throws Exception {
+        WebApp webApp = new WebApp(new MockServletContext());
+        WarmUp w = webApp.warmUp(WarmUpTest.class.getClassLoader(), "org/kohsuke/stapler/WarmUpTest/index");
+        w.getFuture().get(1, TimeUnit.MINUTES);
+
+        assertEquals(4, w.getClassCount());
+    }
+
+    @Test
+    void viewNames() throws Exception {
+        WarmUp w = new WarmUp(new WebApp(new MockServletContext()));
+        assertEquals(
+                List.of("index.jelly", "other.jelly"), List.copyOf(w.viewNames(Klass.java(Root.class), ".jelly")));
+        assertTrue(w.viewNames(Klass.java(Leaf.class), ".jelly").isEmpty());
+    }
+
+    public static class Base {
+        public Leaf[] getLeaves() {
+            return null;
+        }
+    }
+
+    public static class Root extends Base {
+        public Child getChild() {
+            return null;
+        }
+
+        public String getName() {
+            return null;
+        }
+    }
+
+    public static class Child {
+        public Leaf leaf;
+
+        public Object getDynamic(String token) {
+            return null;
+        }
+    }
+
+    public static class Leaf {}
+}
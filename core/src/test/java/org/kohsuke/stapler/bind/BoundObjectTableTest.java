@@ -1,8 +1,13 @@
 package org.kohsuke.stapler.bind;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.net.URL;
 import org.htmlunit.TextPage;
 import org.junit.jupiter.api.Test;
@@ -29,6 +34,101 @@ class BoundObjectTableTest extends JettyTestCase {
         return h;
     }
 
+    @Test
+    void expiredEntriesAreSwept() {
+        BoundObjectTable.Table t = new BoundObjectTable.Table(100);
+        TestRef stale = new TestRef("stale");
+        t.add(stale);
+        t.add(new TestRef("fresh"));
+        assertEquals(2, t.size());
+
+        stale.valid = false;
+        t.add(new TestRef("another"));
+        assertEquals(2, t.size());
+    }
+
+    @Test
+    void oldestEntriesAreDroppedBeyondCapacity() {
+        BoundObjectTable.Table t = new BoundObjectTable.Table(3);
+        Bound first = t.add(new TestRef("first"));
+        for (int i = 0; i < 10; i++) {
+            t.add(new TestRef(i));
+        }
+        assertEquals(3, t.size());
+        assertNull(t.getDynamic(idOf(first)));
+    }
+
+    @Test
+    void releasedEntriesAreForgotten() {
+        BoundObjectTable.Table t = new BoundObjectTable.Table(100);
+        Bound keep = t.add(new TestRef("keep"));
+        for (int i = 0; i < 1000; i++) {
+            t.release(idOf(t.add(new TestRef(i))));
+        }
+        assertEquals(1, t.size());
+        assertEquals("keep", t.getDynamic(idOf(keep)));
+    }
+
+    @Test
+    void staleEntriesBehindLiveOnesAreSwept() {
+        BoundObjectTable.Table t = new BoundObjectTable.Table(100);
+        t.add(new TestRef("long-lived"));
+        TestRef stale = new TestRef("stale");
+        t.add(stale);
+        stale.valid = false;
+        t.add(new TestRef("another"));
+        t.add(new TestRef("yet another"));
+        assertEquals(3, t.size());
+    }
+
+    @Test
+    void serialization() throws Exception {
+        BoundObjectTable.Table t = new BoundObjectTable.Table(3);
+        Bound first = t.add(new TestRef("first"));
+        Bound second = t.add(new TestRef("second"));
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(baos)) {
+            out.writeObject(t);
+        }
+        BoundObjectTable.Table r;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+            r = (BoundObjectTable.Table) in.readObject();
+        }
+        assertEquals("first", r.getDynamic(idOf(first)));
+        assertEquals("second", r.getDynamic(idOf(second)));
+
+        // still bounded, oldest first
+        r.add(new TestRef("third"));
+        r.add(new TestRef("fourth"));
+        assertEquals(3, r.size());
+        assertNull(r.getDynamic(idOf(first)));
+        assertEquals("second", r.getDynamic(idOf(second)));
+    }
+
+    private static String idOf(Bound b) {
+        return ((BoundObjectTable.Table.Handle) b).id;
+    }
+
+    private static final class TestRef implements BoundObjectTable.Ref {
+        private final Object o;
+        boolean valid = true;
+
+        TestRef(Object o) {
+            this.o = o;
+        }
+
+        @Override
+        public Object get() {
+            return o;
+        }
+
+        @Override
+        public boolean valid() {
+            return valid;
+        }
+    }
+
     public static class HelloWorld {
         private final String message;
 
@@ -0,0 +1,89 @@
+package org.kohsuke.stapler.bind;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class BoundTest {
+
+    @Test
+    void jsMethodsAreComputedOncePerClass() {
+        for (Class<?> c : List.of(Base.class, Overriding.class, Extending.class)) {
+            assertSame(Bound.JS_METHODS.get(c), Bound.JS_METHODS.get(c));
+        }
+    }
+
+    @Test
+    void jsMethodsMatchScan() {
+        assertEquals(Set.of("foo", "bar", "one", "two"), Bound.JS_METHODS.get(Base.class).names());
+        // an override without the annotation isn't exposed, one with a different name exposes that instead
+        assertEquals(Set.of("bar", "three"), Bound.JS_METHODS.get(Overriding.class).names());
+        assertEquals(Set.of("foo", "bar", "one", "two", "qux", "more"), Bound.JS_METHODS.get(Extending.class).names());
+
+        for (Class<?> c : List.of(Base.class, Overriding.class, Extending.class, Object.class)) {
+            Bound.JsMethods m = Bound.JS_METHODS.get(c);
+            Set<String> names = scan(c);
+            assertEquals(names, m.names());
+            assertEquals(names, m.commaSeparated().isEmpty() ? Set.of() : Set.of(m.commaSeparated().split(",")));
+            assertEquals(
+                    names.stream().sorted().map(it -> "'" + it + "'").collect(Collectors.joining(",")), m.quoted());
+        }
+    }
+
+    /**
+     * How the names were found before they were cached.
+     */
+    private static Set<String> scan(Class<?> clazz) {
+        Set<String> names = new HashSet<>();
+        for (Method m : clazz.getMethods()) {
+            if (m.getName().startsWith("js")) {
+                names.add(Character.toLowerCase(m.getName().charAt(2)) + m.getName().substring(3));
+            } else {
+                JavaScriptMethod a = m.getAnnotation(JavaScriptMethod.class);
+                if (a != null) {
+                    if (a.name().length == 0) {
+                        names.add(m.getName());
+                    } else {
+                        names.addAll(Arrays.asList(a.name()));
+                    }
+                }
+            }
+        }
+        return names;
+    }
+
+    public static class Base {
+        @JavaScriptMethod
+        public void foo() {}
+
+        public void jsBar() {}
+
+        @JavaScriptMethod(name = {"one", "two"})
+        public void baz() {}
+
+        public void notExposed() {}
+    }
+
+    public static class Overriding extends Base {
+        @Override
+        public void foo() {}
+
+        @Override
+        @JavaScriptMethod(name = "three")
+        public void baz() {}
+    }
+
+    public static class Extending extends Base {
+        @JavaScriptMethod
+        public void qux() {}
+
+        public void jsMore() {}
+    }
+}
@@ -0,0 +1,99 @@
+package org.kohsuke.stapler.export;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+
+class JSONStreamDataWriterTest {
+
+    /**
+     * Writes the bean with both {@link JSONDataWriter} and {@link JSONStreamDataWriter}, and makes sure they agree.
+     */
+    private <T> String serialize(T bean, Class<T> clazz, ExportConfig config) throws IOException {
+        Model<T> model = new ModelBuilder().get(clazz);
+
+        StringWriter w = new StringWriter();
+        model.writeTo(bean, Flavor.JSON.createDataWriter(bean, w, config));
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        model.writeTo(bean, Flavor.JSON.createDataWriter(bean, baos, config));
+        String s = baos.toString(StandardCharsets.UTF_8);
+
+        assertEquals(w.toString(), s);
+        return s;
+    }
+
+    private <T> String serialize(T bean, Class<T> clazz) throws IOException {
+        return serialize(bean, clazz, new ExportConfig().withFlavor(Flavor.JSON));
+    }
+
+    @ExportedBean
+    public static class Strings {
+        @Exported
+        public String ascii = "hello world";
+
+        @Exported
+        public String escaped = "\"quoted\"\\\n\r\t\u0001\u007f";
+
+        @Exported
+        public String nonAscii = "café 日本 𝄞";
+
+        @Exported
+        public String empty = "";
+
+        @Exported
+        public String nothing = null;
+    }
+
+    @Test
+    void strings() throws Exception {
+        assertEquals(
+                "{\"_class\":\"org.kohsuke.stapler.export.JSONStreamDataWriterTest$Strings\",\"ascii\":\"hello world\","
+                        + "\"empty\":\"\",\"escaped\":\"\\\"quoted\\\"\\\\\\u000a\\u000d\\u0009\\u0001\\u007f\","
+                        + "\"nonAscii\":\"café 日本 \\ud834\\udd1e\",\"nothing\":null}",
+                serialize(new Strings(), Strings.class));
+    }
+
+    @ExportedBean
+    public static class Collections {
+        @Exported
+        public int[] numbers = {1, 2, 3};
+
+        @Exported
+        public List<Object> mixed = List.of(true, 2L, 3.5, "four");
+
+        @Exported
+        public Map<String, Integer> map = new TreeMap<>(Map.of("a", 1, "b", 2));
+
+        @Exported
+        public List<Strings> nested = List.of(new Strings());
+    }
+
+    @Test
+    void collections() throws Exception {
+        serialize(new Collections(), Collections.class);
+    }
+
+    @Test
+    void prettyPrint() throws Exception {
+        serialize(
+                new Collections(),
+                Collections.class,
+                new ExportConfig().withFlavor(Flavor.JSON).withPrettyPrint(true));
+    }
+
+    @Test
+    void longString() throws Exception {
+        Strings s = new Strings();
+        s.ascii = "x".repeat(20000);
+        s.nonAscii = "é\"".repeat(10000);
+        serialize(s, Strings.class);
+    }
+}
@@ -109,6 +109,49 @@ class ModelTest {
 
     // ===========================================
 
+    @Test
+    void failingItemsAreDropped() throws Exception {
+        StringWriter sw = new StringWriter();
+        Item o = new Item(
+                "root",
+                new Item("a", new Item("b"), new Item(null)),
+                new Item(null, new Item("unseen")),
+                new Item("c"));
+        builder.get(Item.class).writeTo(o, Flavor.JSON.createDataWriter(o, sw, config));
+        assertEquals(
+                "{'_class':'Item','children':["
+                        + "{'_class':'Item','children':[{'_class':'Item','children':[],'name':'b'}],'name':'a'},"
+                        + "{'_class':'Item','children':[],'name':'c'}"
+                        + "],'name':'root'}",
+                sw.toString().replace('"', '\''));
+    }
+
+    @ExportedBean
+    public static class Item {
+        private final String name;
+        private final List<Item> children;
+
+        Item(String name, Item... children) {
+            this.name = name;
+            this.children = List.of(children);
+        }
+
+        @Exported
+        public List<Item> getChildren() {
+            return children;
+        }
+
+        @Exported
+        public String getName() {
+            if (name == null) {
+                throw new IllegalStateException("broken");
+            }
+            return name;
+        }
+    }
+
+    // ===========================================
+
     @Test
     void skipNull() throws Exception {
         StringWriter sw = new StringWriter();
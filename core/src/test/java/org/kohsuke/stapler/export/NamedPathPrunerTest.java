@@ -1,6 +1,7 @@
 package org.kohsuke.stapler.export;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.StringWriter;
@@ -72,6 +73,36 @@ class NamedPathPrunerTest {
         assertResult("{_class:Vhew,jobs:[{name:job97},{name:job98},{name:job99}]}", v, "jobs[name]{97,}");
     }
 
+    @Test
+    void testSelect() throws Exception {
+        assertSame(NamedPathPruner.parseCached("jobs[name]"), NamedPathPruner.parseCached("jobs[name]"));
+
+        Model<Jhob> model = new ModelBuilder().get(Jhob.class);
+        Property[] properties = model.getProperties().toArray(new Property[0]);
+        assertEquals(
+                List.of("displayName", "name"),
+                Arrays.stream(new NamedPathPruner("name,displayName").select(model, properties))
+                        .map(p -> p.name)
+                        .toList());
+        assertSame(properties, new NamedPathPruner("name,*").select(model, properties));
+
+        // remembered by the model, for each parsed tree
+        NamedPathPruner pruner = new NamedPathPruner("name,displayName");
+        assertSame(pruner.select(model, properties), pruner.select(model, properties));
+        assertSame(
+                pruner.select(model, properties),
+                model.selections.get(NamedPathPruner.parseCached("name,displayName")));
+        Model<Jhob> other = new ModelBuilder().get(Jhob.class);
+        assertEquals(0, other.selections.size());
+
+        // the same results with wildcards, which can't skip anything
+        assertResult("{_class:Jhob,displayName:x,name:n,trash:t}", new Jhob("n", "x", "t"), "*");
+        assertResult(
+                "{_class:Vhew,jobs:[{name:n}],name:v,trash:t}",
+                new Vhew("v", "t", new Jhob[] {new Jhob("n", "x", "t")}),
+                "*[name]");
+    }
+
     @ExportedBean
     public static class Stuff {
         @Exported
@@ -0,0 +1,53 @@
+package org.kohsuke.stapler.framework.io;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class ByteBufferTest {
+
+    @Test
+    void acrossChunks() throws Exception {
+        Random r = new Random(0);
+        ByteBuffer bb = new ByteBuffer();
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        while (expected.size() < 3_000_000) {
+            byte[] b = new byte[r.nextInt(50_000)];
+            r.nextBytes(b);
+            bb.write(b, 0, b.length);
+            expected.write(b, 0, b.length);
+            bb.write(0xFF);
+            expected.write(0xFF);
+        }
+        byte[] data = expected.toByteArray();
+        assertEquals(data.length, bb.length());
+
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        bb.writeTo(written);
+        assertArrayEquals(data, written.toByteArray());
+
+        InputStream in = bb.newInputStream();
+        assertEquals(1_234_567, in.skip(1_234_567));
+        assertEquals(data[1_234_567] & 0xFF, in.read());
+        assertArrayEquals(Arrays.copyOfRange(data, 1_234_568, data.length), in.readAllBytes());
+        assertEquals(-1, in.read());
+    }
+
+    @Test
+    void readWhileWriting() throws Exception {
+        ByteBuffer bb = new ByteBuffer();
+        InputStream in = bb.newInputStream();
+        assertEquals(-1, in.read());
+
+        bb.write("Hello".getBytes(), 0, 5);
+        assertEquals("Hello", new String(in.readAllBytes()));
+        bb.write(" World!".getBytes(), 0, 7);
+        assertEquals(" World!", new String(in.readAllBytes()));
+        assertEquals("Hello World!", bb.toString());
+    }
+}
@@ -0,0 +1,25 @@
+package org.kohsuke.stapler.framework.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.StringWriter;
+import org.junit.jupiter.api.Test;
+
+class CharSpoolTest {
+
+    @Test
+    void spoolAndRelease() throws Exception {
+        String text = "Hello World!\n".repeat(50_000);
+        for (int i = 0; i < 2; i++) { // the second time around, chunks come from the pool
+            CharSpool spool = new CharSpool();
+            spool.write(text.substring(0, 1000));
+            spool.write('!');
+            spool.write(text.substring(1001));
+
+            StringWriter w = new StringWriter();
+            spool.writeTo(w);
+            spool.release();
+            assertEquals(text.substring(0, 1000) + "!" + text.substring(1001), w.toString());
+        }
+    }
+}
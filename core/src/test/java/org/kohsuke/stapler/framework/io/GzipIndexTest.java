@@ -0,0 +1,154 @@
+package org.kohsuke.stapler.framework.io;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class GzipIndexTest {
+
+    @TempDir
+    private File tmp;
+
+    private byte[] text;
+    private long span;
+
+    @BeforeEach
+    void setUp() {
+        Random r = new Random(0);
+        String[] words = {"[Pipeline] echo", "Started by user", "BUILD SUCCESS", "\n", "\n"};
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < 1_000_000) {
+            sb.append(words[r.nextInt(words.length)]).append(r.nextInt(1000)).append(' ');
+        }
+        text = sb.toString().getBytes(StandardCharsets.UTF_8);
+        span = GzipIndex.SPAN;
+        GzipIndex.SPAN = 50_000;
+    }
+
+    @AfterEach
+    void tearDown() {
+        GzipIndex.SPAN = span;
+    }
+
+    /**
+     * Compresses the text, as that many concatenated GZIP members.
+     */
+    private File gzip(int level, int members) throws IOException {
+        File f = new File(tmp, "log-" + level + "-" + members + ".gz");
+        try (OutputStream out = Files.newOutputStream(f.toPath())) {
+            int chunk = text.length / members + 1;
+            for (int i = 0; i < text.length; i += chunk) {
+                try (GZIPOutputStream gz = new GZIPOutputStream(new FilterOutputStream(out) {
+                    @Override
+                    public void close() {}
+                }) {
+                    {
+                        def.setLevel(level);
+                    }
+                }) {
+                    gz.write(text, i, Math.min(chunk, text.length - i));
+                }
+            }
+        }
+        return f;
+    }
+
+    private void assertReads(File f) throws IOException {
+        GzipIndex index = GzipIndex.of(f);
+        assertEquals(text.length, index.length);
+        for (long offset : new long[] {0, 1, 49_999, 50_000, 333_334, 500_001, text.length - 5, text.length}) {
+            try (InputStream in = index.open(f, offset)) {
+                byte[] expected = Arrays.copyOfRange(text, (int) offset, (int) Math.min(text.length, offset + 10_000));
+                assertArrayEquals(expected, in.readNBytes(10_000), "at " + offset);
+            }
+        }
+    }
+
+    @Test
+    void bitShiftingStreamSkips() throws Exception {
+        byte[] raw = Arrays.copyOf(text, 20_000);
+        for (int bits = 1; bits < 8; bits++) {
+            byte[] all;
+            try (InputStream in = new GzipIndex.BitShiftingInputStream(new ByteArrayInputStream(raw), bits)) {
+                all = in.readAllBytes();
+            }
+            try (InputStream in = new GzipIndex.BitShiftingInputStream(new ByteArrayInputStream(raw), bits)) {
+                assertEquals(12_345, in.skip(12_345));
+                assertArrayEquals(Arrays.copyOfRange(all, 12_345, all.length), in.readAllBytes());
+                assertEquals(0, in.skip(1));
+            }
+        }
+    }
+
+    @Test
+    void singleMember() throws Exception {
+        for (int level : new int[] {0, 1, 6, 9}) {
+            assertReads(gzip(level, 1));
+        }
+    }
+
+    @Test
+    void concatenatedMembers() throws Exception {
+        assertReads(gzip(6, 3));
+    }
+
+    @Test
+    void sidecar() throws Exception {
+        File f = gzip(6, 1);
+        GzipIndex.of(f);
+        File sidecar = new File(f.getPath() + ".index");
+        assertTrue(sidecar.isFile());
+
+        // make sure it isn't simply taken from memory
+        assertTrue(f.setLastModified(f.lastModified() - 10_000));
+        assertTrue(sidecar.delete());
+        GzipIndex.of(f);
+        assertTrue(sidecar.isFile());
+        assertReads(f);
+    }
+
+    @Test
+    void contentChangeIsNoticed() throws Exception {
+        File f = gzip(0, 1);
+        long lastModified = f.lastModified();
+        GzipIndex first = GzipIndex.of(f);
+
+        // same size and timestamp, but different text
+        text[text.length - 1] ^= 1;
+        assertEquals(f, gzip(0, 1));
+        assertTrue(f.setLastModified(lastModified));
+        assertNotSame(first, GzipIndex.of(f));
+        assertReads(f);
+    }
+
+    @Test
+    void builtInBackground() throws Exception {
+        File f = gzip(6, 1);
+        GzipIndex index = GzipIndex.get(f);
+        for (int i = 0; i < 100 && index == null; i++) {
+            Thread.sleep(100);
+            index = GzipIndex.get(f);
+        }
+        assertNotNull(index);
+        assertSame(index, GzipIndex.of(f));
+    }
+}
@@ -31,11 +31,20 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.kohsuke.stapler.framework.io.LargeText.SEARCH_STOP_PARAMETER;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.EOFException;
@@ -46,10 +55,14 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.io.RandomAccessFile;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.zip.GZIPOutputStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
@@ -130,6 +143,27 @@ class LargeTextTest extends AbstractStaplerTestV4 {
         writeLogToWith(gzFile());
     }
 
+    @Test
+    void writeLogToFromIndexedGzFile() throws Exception {
+        LargeText.GZIP_INDEX = true;
+        try {
+            writeLogToWith(gzFile());
+        } finally {
+            LargeText.GZIP_INDEX = false;
+        }
+    }
+
+    @Test
+    void writeLogToFromMappedFile() throws Exception {
+        LargeText.MMAP = true;
+        try {
+            writeLogToWith(file());
+        } finally {
+            LargeText.MMAP = false;
+            MappedFile.clear();
+        }
+    }
+
     private void writeLogToWith(BuildLargeText t) throws Exception {
         assertEquals("", tail(t, "", 0));
         assertEquals("abcde", tail(t, "abcde", 0));
@@ -311,6 +345,33 @@ class LargeTextTest extends AbstractStaplerTestV4 {
         assertEquals(text.substring(0, stop), responseBAOS.toString());
     }
 
+    @Test
+    void doProgressTextBytes() throws Exception {
+        String text = "Hello\nWorld!\r\ncafé\n";
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer bb = new ByteBuffer();
+        bb.write(bytes, 0, bytes.length);
+        LargeText t = new LargeText(bb, StandardCharsets.UTF_8, true);
+        when(rawResponse.getCharacterEncoding()).thenReturn("UTF-8");
+        when(rawResponse.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                responseBAOS.write(b);
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {}
+        });
+
+        t.doProgressText(request, response);
+        assertEquals("Hello\r\nWorld!\r\ncafé\r\n", responseBAOS.toString(StandardCharsets.UTF_8));
+    }
+
     @Test
     void doProgressTextStreaming() throws Exception {
         String text = "Hello World!";
@@ -511,6 +572,187 @@ class LargeTextTest extends AbstractStaplerTestV4 {
                         {"completed":true,"startFromNewLine":true,"start":10000,"end":10012}""");
     }
 
+    @Test
+    void doProgressTextStreamingTailMappedFile() throws Exception {
+        Path path = Files.createTempFile("stapler-test", ".log");
+        LargeText.MMAP = true;
+        try {
+            // long enough to span several blocks of the newline index, before and after the tail starts
+            Files.writeString(path, "x".repeat(200000) + "\nHello");
+            LargeText t = new LargeText(path.toFile(), StandardCharsets.UTF_8, true);
+            assertEquals(200006, t.writeLogTo(0, OutputStream.nullOutputStream()));
+
+            // the mapping follows the file as it grows
+            Files.writeString(path, " World!", StandardOpenOption.APPEND);
+            when(request.getHeader("Accept")).thenReturn("multipart/form-data");
+            when(request.getParameter("start")).thenReturn("-100000");
+
+            t.doProgressText(request, response);
+            expectStreamingResponse("Hello World!", """
+                            {"completed":true,"startFromNewLine":true,"start":200001,"end":200013}""");
+        } finally {
+            LargeText.MMAP = false;
+            MappedFile.clear();
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void doProgressTextStreamingFetchMoreMappedFile() throws Exception {
+        Path path = Files.createTempFile("stapler-test", ".log");
+        LargeText.MMAP = true;
+        try {
+            Files.writeString(path, "x".repeat(200000) + "\nHello World!");
+            LargeText t = new LargeText(path.toFile(), StandardCharsets.UTF_8, true);
+            when(request.getHeader("Accept")).thenReturn("multipart/form-data");
+            when(request.getParameter("start")).thenReturn("100");
+            when(request.getParameter(SEARCH_STOP_PARAMETER)).thenReturn("200002");
+
+            t.doProgressText(request, response);
+            expectStreamingResponse("Hello World!", """
+                            {"completed":true,"startFromNewLine":true,"start":200001,"end":200013}""");
+        } finally {
+            LargeText.MMAP = false;
+            MappedFile.clear();
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void doProgressTextEvents() throws Exception {
+        ByteBuffer bb = new ByteBuffer();
+        bb.write("Hello\nWor".getBytes(), 0, 9);
+        LargeText t = new LargeText(bb, false);
+        AsyncContext ctx = mock(AsyncContext.class);
+        CountDownLatch completed = new CountDownLatch(1);
+        doAnswer(invocationOnMock -> {
+                    completed.countDown();
+                    return null;
+                })
+                .when(ctx)
+                .complete();
+        when(rawRequest.isAsyncSupported()).thenReturn(true);
+        when(rawRequest.startAsync()).thenReturn(ctx);
+        when(rawResponse.getOutputStream()).thenReturn(eventStreamOutput(true));
+        when(request.getHeader("Accept")).thenReturn("text/event-stream");
+
+        t.doProgressText(request, response);
+        assertEquals("text/event-stream;charset=UTF-8", contentType);
+        verify(ctx).addListener(any());
+
+        // only complete lines are sent until the text is complete
+        String first = "data: Hello\ndata: \nid: 6\n\n";
+        for (int i = 0; i < 100 && !responseBAOS.toString().equals(first); i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(first, responseBAOS.toString());
+
+        bb.write("ld!".getBytes(), 0, 3);
+        t.markAsComplete();
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        assertEquals(
+                first + "data: World!\nid: 12\n\n" + "event: complete\nid: 12\ndata: \n\n", responseBAOS.toString());
+    }
+
+    @Test
+    void doProgressTextEventsInvalidLastEventId() throws Exception {
+        LargeText t = new LargeText(new ByteBuffer(), false);
+        when(rawRequest.isAsyncSupported()).thenReturn(true);
+        when(request.getHeader("Accept")).thenReturn("text/event-stream");
+        when(request.getHeader("Last-Event-ID")).thenReturn("-5");
+
+        t.doProgressText(request, response);
+        verify(rawResponse).sendError(eq(HttpServletResponse.SC_BAD_REQUEST), anyString());
+        verify(rawRequest, never()).startAsync();
+    }
+
+    @Test
+    void doProgressTextEventsUsesWriteLogTo() throws Exception {
+        ByteBuffer bb = new ByteBuffer();
+        bb.write("a\r\nb\n".getBytes(), 0, 5);
+        LargeText t = new LargeText(bb, true) {
+            @Override
+            public long writeLogTo(long start, Writer w) throws IOException {
+                long r = super.writeLogTo(start, w);
+                w.write("<annotated>");
+                return r;
+            }
+
+            @Override
+            protected void setContentType(StaplerResponse2 rsp) {
+                rsp.setContentType("text/html;charset=UTF-8");
+            }
+        };
+        AsyncContext ctx = mock(AsyncContext.class);
+        CountDownLatch completed = new CountDownLatch(1);
+        doAnswer(invocationOnMock -> {
+                    completed.countDown();
+                    return null;
+                })
+                .when(ctx)
+                .complete();
+        when(rawRequest.isAsyncSupported()).thenReturn(true);
+        when(rawRequest.startAsync()).thenReturn(ctx);
+        when(rawResponse.getOutputStream()).thenReturn(eventStreamOutput(true));
+        when(request.getHeader("Accept")).thenReturn("text/event-stream");
+
+        t.doProgressText(request, response);
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        verify(rawResponse).setHeader("X-Text-Content-Type", "text/html;charset=UTF-8");
+        assertEquals(
+                "data: a\ndata: b\ndata: <annotated>\nid: 5\n\n" + "event: complete\nid: 5\ndata: \n\n",
+                responseBAOS.toString());
+    }
+
+    @Test
+    void doProgressTextEventsDropsClientThatDoesNotRead() throws Exception {
+        ByteBuffer bb = new ByteBuffer();
+        bb.write("Hello\n".getBytes(), 0, 6);
+        LargeText t = new LargeText(bb, false);
+        AsyncContext ctx = mock(AsyncContext.class);
+        CountDownLatch completed = new CountDownLatch(1);
+        doAnswer(invocationOnMock -> {
+                    completed.countDown();
+                    return null;
+                })
+                .when(ctx)
+                .complete();
+        when(rawRequest.isAsyncSupported()).thenReturn(true);
+        when(rawRequest.startAsync()).thenReturn(ctx);
+        when(rawResponse.getOutputStream()).thenReturn(eventStreamOutput(false));
+        when(request.getHeader("Accept")).thenReturn("text/event-stream");
+
+        long timeout = LargeText.EVENT_WRITE_TIMEOUT;
+        LargeText.EVENT_WRITE_TIMEOUT = 100;
+        try {
+            t.doProgressText(request, response);
+            assertTrue(completed.await(5, TimeUnit.SECONDS));
+            assertEquals("", responseBAOS.toString());
+        } finally {
+            LargeText.EVENT_WRITE_TIMEOUT = timeout;
+        }
+    }
+
+    /**
+     * Output in non-blocking mode, which is either always ready to be written to, or never.
+     */
+    private ServletOutputStream eventStreamOutput(boolean ready) {
+        return new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                responseBAOS.write(b);
+            }
+
+            @Override
+            public boolean isReady() {
+                return ready;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {}
+        };
+    }
+
     @Test
     void doProgressTextStreamingFetchMoreNoLF() throws Exception {
         String text = "x".repeat(9999) + "\nHello World!";
@@ -0,0 +1,49 @@
+package org.kohsuke.stapler.framework.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class LineEndNormalizingOutputStreamTest {
+
+    private static void write(OutputStream os, String s) throws IOException {
+        os.write(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void crossingWrites() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        OutputStream os = new LineEndNormalizingOutputStream(baos);
+
+        write(os, "abc\r\ndef\r");
+        write(os, "\n");
+        os.write('\n');
+
+        assertEquals("abc\r\ndef\r\n\r\n", baos.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void multibyte() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        OutputStream os = new LineEndNormalizingOutputStream(baos);
+
+        write(os, "café\n日本\r\n\n");
+
+        assertEquals("café\r\n日本\r\n\r\n", baos.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void supports() {
+        assertTrue(LineEndNormalizingOutputStream.supports(StandardCharsets.UTF_8));
+        assertTrue(LineEndNormalizingOutputStream.supports(StandardCharsets.ISO_8859_1));
+        assertTrue(LineEndNormalizingOutputStream.supports(Charset.forName("ISO-8859-15")));
+        assertFalse(LineEndNormalizingOutputStream.supports(StandardCharsets.UTF_16));
+    }
+}
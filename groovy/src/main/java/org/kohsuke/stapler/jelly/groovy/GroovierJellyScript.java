@@ -60,6 +60,10 @@ public class GroovierJellyScript implements Script {
         this.scriptURL = scriptURL;
     }
 
+    /*package for test*/ Class<?> getScriptClass() {
+        return clazz;
+    }
+
     @Override
     public Script compile() {
         return this;
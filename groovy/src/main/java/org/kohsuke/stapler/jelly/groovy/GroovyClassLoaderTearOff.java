@@ -28,6 +28,8 @@ import groovy.lang.GroovyClassLoader;
 import groovy.lang.GroovyCodeSource;
 import java.io.IOException;
 import java.net.URL;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import org.codehaus.groovy.control.CompilerConfiguration;
 import org.kohsuke.stapler.MetaClass;
 import org.kohsuke.stapler.MetaClassLoader;
@@ -46,7 +48,10 @@ public class GroovyClassLoaderTearOff {
         gcl = createGroovyClassLoader();
     }
 
-    private GroovyClassLoader createGroovyClassLoader() {
+    /**
+     * Configuration to compile views with, also used by {@link GroovyViewPrecompiler}.
+     */
+    static CompilerConfiguration createCompilerConfiguration() {
         CompilerConfiguration cc = new CompilerConfiguration();
         // use GroovyClosureScript class as the base class of the compiled script,
         // so that we can set a delegate.
@@ -54,7 +59,11 @@ public class GroovyClassLoaderTearOff {
 
         // enable re-compilation support
         cc.setRecompileGroovySource(MetaClass.NO_CACHE);
-        return new GroovyClassLoader(owner.loader, cc) {
+        return cc;
+    }
+
+    private GroovyClassLoader createGroovyClassLoader() {
+        return new GroovyClassLoader(owner.loader, createCompilerConfiguration()) {
             /**
              * Groovy calls this method to locate .groovy script files,
              * so during the development it's important to check the
@@ -75,6 +84,20 @@ public class GroovyClassLoaderTearOff {
     }
 
     public GroovierJellyScript parse(URL script) throws IOException {
+        if (!MetaClass.NO_CACHE) {
+            PrecompiledView precompiled = PrecompiledView.load(script);
+            if (precompiled != null) {
+                try {
+                    return new GroovierJellyScript(precompiled.define(gcl), script);
+                } catch (ClassNotFoundException | LinkageError e) {
+                    LOGGER.log(
+                            Level.WARNING,
+                            "Failed to load " + script + PrecompiledView.SUFFIX + ", compiling it instead",
+                            e);
+                }
+            }
+        }
+
         // we do the caching on our own, so don't let GroovyClassLoader cache this. Or else
         // dynamic reloading won't work
         GroovyCodeSource gcs = new GroovyCodeSource(script);
@@ -82,4 +105,6 @@ public class GroovyClassLoaderTearOff {
 
         return new GroovierJellyScript(gcl.parseClass(gcs), script);
     }
+
+    private static final Logger LOGGER = Logger.getLogger(GroovyClassLoaderTearOff.class.getName());
 }
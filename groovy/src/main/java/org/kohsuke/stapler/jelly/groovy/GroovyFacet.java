@@ -37,6 +37,7 @@ import org.kohsuke.stapler.Facet;
 import org.kohsuke.stapler.MetaClass;
 import org.kohsuke.stapler.RequestImpl;
 import org.kohsuke.stapler.ResponseImpl;
+import org.kohsuke.stapler.WarmUp;
 import org.kohsuke.stapler.jelly.JellyClassTearOff;
 import org.kohsuke.stapler.jelly.JellyCompatibleFacet;
 import org.kohsuke.stapler.jelly.JellyFacet;
@@ -77,6 +78,11 @@ public class GroovyFacet extends Facet implements JellyCompatibleFacet {
         return d;
     }
 
+    @Override
+    public int warmUp(WarmUp warmUp, MetaClass owner) throws Exception {
+        return warmUp(warmUp, owner.loadTearOff(GroovyClassTearOff.class));
+    }
+
     @Override
     public void buildIndexDispatchers(MetaClass owner, List<Dispatcher> dispatchers) {
         try {
@@ -0,0 +1,103 @@
+package org.kohsuke.stapler.jelly.groovy;
+
+import groovy.lang.GroovyClassLoader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.codehaus.groovy.control.CompilationFailedException;
+import org.codehaus.groovy.control.CompilationUnit;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.Phases;
+import org.codehaus.groovy.tools.GroovyClass;
+
+/**
+ * Compiles Groovy views at build time, and writes down their classes as a {@link PrecompiledView} next to each,
+ * so that they don't need to be compiled again when they are first rendered.
+ *
+ * <p>
+ * Meant to be run on the output directory after resources are copied, with the classpath of the project,
+ * for example with {@code exec-maven-plugin} in the {@code process-classes} phase:
+ *
+ * <pre>
+ * java org.kohsuke.stapler.jelly.groovy.GroovyViewPrecompiler target/classes
+ * </pre>
+ *
+ * Fails listing every view that doesn't compile. Classes of views that are later modified are ignored,
+ * so stale ones are never used.
+ */
+public final class GroovyViewPrecompiler {
+    private GroovyViewPrecompiler() {}
+
+    public static void main(String... args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: java " + GroovyViewPrecompiler.class.getName() + " DIR...");
+            System.exit(2);
+        }
+        List<String> errors = new ArrayList<>();
+        int count = 0;
+        for (String arg : args) {
+            count += precompile(Paths.get(arg), Thread.currentThread().getContextClassLoader(), errors);
+        }
+        errors.forEach(System.err::println);
+        if (!errors.isEmpty()) {
+            System.exit(1);
+        }
+        System.out.println("Compiled " + count + " Groovy views");
+    }
+
+    /**
+     * Compiles every {@code *.groovy} file under the given directory, except those next to which there's a class file
+     * of the same name, as those are regular Groovy classes rather than views.
+     *
+     * @param classLoader
+     *      loads the classes that the views refer to.
+     * @param errors
+     *      receives a description of every view that doesn't compile.
+     * @return
+     *      number of views compiled.
+     */
+    public static int precompile(Path dir, ClassLoader classLoader, List<String> errors) throws IOException {
+        List<Path> views;
+        try (Stream<Path> files = Files.walk(dir)) {
+            views = files.filter(p -> {
+                        String n = p.getFileName().toString();
+                        return n.endsWith(".groovy")
+                                && Files.isRegularFile(p)
+                                && !Files.exists(p.resolveSibling(n.substring(0, n.length() - 7) + ".class"));
+                    })
+                    .toList();
+        }
+
+        CompilerConfiguration cc = GroovyClassLoaderTearOff.createCompilerConfiguration();
+        int count = 0;
+        for (Path view : views) {
+            Path out = view.resolveSibling(view.getFileName() + PrecompiledView.SUFFIX);
+            byte[] source = Files.readAllBytes(view);
+            try (GroovyClassLoader gcl = new GroovyClassLoader(classLoader, cc)) {
+                CompilationUnit cu = new CompilationUnit(cc, null, gcl);
+                // named after the URL like GroovyCodeSource does, so that the script class gets the same name
+                cu.addSource(view.toUri().toURL().toExternalForm(), new String(source, cc.getSourceEncoding()));
+                cu.compile(Phases.CLASS_GENERATION);
+
+                Map<String, byte[]> classes = new LinkedHashMap<>();
+                for (Object o : cu.getClasses()) {
+                    GroovyClass c = (GroovyClass) o;
+                    classes.put(c.getName(), c.getBytes());
+                }
+                PrecompiledView p = new PrecompiledView(cu.getFirstClassNode().getName(), classes);
+                Files.write(out, p.toByteArray(source));
+                count++;
+            } catch (CompilationFailedException e) {
+                errors.add(view + ": " + e.getMessage());
+                Files.deleteIfExists(out);
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,171 @@
+package org.kohsuke.stapler.jelly.groovy;
+
+import groovy.lang.GroovySystem;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Classes of a Groovy view, compiled at build time by {@link GroovyViewPrecompiler}
+ * so that they don't need to be compiled again when the view is first rendered.
+ *
+ * <p>
+ * The classes of {@code foo.groovy} are kept next to it as {@code foo.groovy.classes}, and are only used if they
+ * were compiled from the same source, which is checked by a CRC, by the same versions of Groovy and Stapler.
+ */
+final class PrecompiledView {
+    static final String SUFFIX = ".classes";
+
+    private static final int MAGIC = 0x53475643; // SGVC
+    private static final int VERSION = 2;
+
+    /**
+     * Version of Stapler, whose {@link GroovyClosureScript} the script classes extend.
+     */
+    private static final String STAPLER_VERSION = staplerVersion();
+
+    private final String mainClass;
+    private final Map<String, byte[]> classes;
+
+    PrecompiledView(String mainClass, Map<String, byte[]> classes) {
+        this.mainClass = mainClass;
+        this.classes = classes;
+    }
+
+    byte[] toByteArray(byte[] source) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(baos);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(GroovySystem.getVersion());
+        out.writeUTF(STAPLER_VERSION);
+        out.writeLong(crc(source));
+        out.writeUTF(mainClass);
+        out.writeInt(classes.size());
+        for (Map.Entry<String, byte[]> e : classes.entrySet()) {
+            out.writeUTF(e.getKey());
+            out.writeInt(e.getValue().length);
+            out.write(e.getValue());
+        }
+        return baos.toByteArray();
+    }
+
+    /**
+     * Loads the classes that are next to the given view, if there are some and they are up to date.
+     */
+    static PrecompiledView load(URL source) {
+        if (DISABLED) {
+            return null;
+        }
+        byte[] data;
+        try (InputStream in = new URL(source, fileName(source) + SUFFIX).openStream()) {
+            data = in.readAllBytes();
+        } catch (IOException e) {
+            return null; // not there
+        }
+
+        try (InputStream src = source.openStream()) {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+            if (in.readInt() != MAGIC
+                    || in.readInt() != VERSION
+                    || !in.readUTF().equals(GroovySystem.getVersion())
+                    || !in.readUTF().equals(STAPLER_VERSION)
+                    || in.readLong() != crc(src.readAllBytes())) {
+                LOGGER.fine(() -> "Ignoring stale " + source + SUFFIX);
+                return null;
+            }
+            String mainClass = in.readUTF();
+            Map<String, byte[]> classes = new LinkedHashMap<>();
+            for (int i = in.readInt(); i > 0; i--) {
+                String name = in.readUTF();
+                byte[] b = new byte[in.readInt()];
+                in.readFully(b);
+                classes.put(name, b);
+            }
+            return new PrecompiledView(mainClass, classes);
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Failed to read " + source + SUFFIX, e);
+            return null;
+        }
+    }
+
+    private static String fileName(URL url) {
+        String path = url.getPath();
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    static long crc(byte[] source) {
+        CRC32 crc = new CRC32();
+        crc.update(source);
+        return crc.getValue();
+    }
+
+    /**
+     * The version in the manifest, or when running from classes that aren't packaged yet,
+     * a CRC of {@link GroovyClosureScript} itself.
+     */
+    private static String staplerVersion() {
+        String v = GroovyClosureScript.class.getPackage().getImplementationVersion();
+        if (v != null) {
+            return v;
+        }
+        try (InputStream in = GroovyClosureScript.class.getResourceAsStream("GroovyClosureScript.class")) {
+            return in == null ? "" : "crc:" + Long.toHexString(crc(in.readAllBytes()));
+        } catch (IOException e) {
+            return "";
+        }
+    }
+
+    /**
+     * Defines the classes in a new class loader, so that they can be discarded along with the view,
+     * and returns the script class.
+     */
+    Class<?> define(ClassLoader parent) throws ClassNotFoundException {
+        return new Loader(parent, classes).loadClass(mainClass);
+    }
+
+    /*package for test*/ static final class Loader extends ClassLoader {
+        private final Map<String, byte[]> classes;
+
+        Loader(ClassLoader parent, Map<String, byte[]> classes) {
+            super(parent);
+            this.classes = classes;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            // ours first, as views in different folders have classes of the same name
+            byte[] b = classes.get(name);
+            if (b == null) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> c = findLoadedClass(name);
+                if (c == null) {
+                    c = defineClass(name, b, 0, b.length);
+                }
+                if (resolve) {
+                    resolveClass(c);
+                }
+                return c;
+            }
+        }
+    }
+
+    /**
+     * Set to true to ignore precompiled classes, and always compile the views.
+     */
+    public static /* nonfinal for Jenkins script console */ boolean DISABLED =
+            Boolean.getBoolean(PrecompiledView.class.getName() + ".disabled");
+
+    private static final Logger LOGGER = Logger.getLogger(PrecompiledView.class.getName());
+}
@@ -4,7 +4,9 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.emptyString;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import java.io.ByteArrayOutputStream;
@@ -12,10 +14,13 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import org.apache.commons.jelly.JellyContext;
 import org.apache.commons.jelly.JellyTagException;
 import org.apache.commons.jelly.XMLOutput;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.kohsuke.stapler.MetaClassLoader;
 import org.kohsuke.stapler.test.AbstractStaplerTest;
 
@@ -105,5 +110,36 @@ class GroovyClassLoaderTearOffTest extends AbstractStaplerTest {
         }
     }
 
+    @Test
+    void precompiled(@TempDir Path dir) throws Exception {
+        MetaClassLoader mcl = webApp.getMetaClass(Foo.class).classLoader;
+        GroovyClassLoaderTearOff t = mcl.loadTearOff(GroovyClassLoaderTearOff.class);
+
+        Path view = dir.resolve("index.groovy");
+        Files.writeString(view, "context.setVariable('x',[1].collect { it })", StandardCharsets.UTF_8);
+        Files.writeString(dir.resolve("broken.groovy"), "context.setVariable('x',", StandardCharsets.UTF_8);
+
+        List<String> errors = new ArrayList<>();
+        assertEquals(1, GroovyViewPrecompiler.precompile(dir, getClass().getClassLoader(), errors));
+        assertEquals(1, errors.size());
+        assertThat(errors.get(0).startsWith(dir.resolve("broken.groovy").toString()), is(true));
+        assertThat(PrecompiledView.load(view.toUri().toURL()), notNullValue());
+
+        JellyContext context = new JellyContext();
+        XMLOutput w = XMLOutput.createXMLOutput(System.out);
+        GroovierJellyScript s = t.parse(view.toUri().toURL());
+        assertThat(s.getScriptClass().getClassLoader(), instanceOf(PrecompiledView.Loader.class));
+        s.run(context, w);
+        assertEquals(List.of(1), context.getVariable("x"));
+
+        // modified views are compiled again
+        Files.writeString(view, "context.setVariable('x',2)", StandardCharsets.UTF_8);
+        assertThat(PrecompiledView.load(view.toUri().toURL()), nullValue());
+        s = t.parse(view.toUri().toURL());
+        assertThat(s.getScriptClass().getClassLoader(), not(instanceOf(PrecompiledView.Loader.class)));
+        s.run(context, w);
+        assertEquals(2, context.getVariable("x"));
+    }
+
     public static class Foo {}
 }
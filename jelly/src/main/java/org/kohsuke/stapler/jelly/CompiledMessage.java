@@ -0,0 +1,116 @@
+package org.kohsuke.stapler.jelly;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * A format string from {@link ResourceBundle}, prepared so that it can be formatted repeatedly
+ * with the same result as {@link MessageFormat#format(String, Object...)}, but without parsing it every time.
+ *
+ * <p>
+ * Most messages are either plain text or only have simple placeholders like <code>{0}</code>,
+ * which we handle by ourselves. Anything fancier goes to a {@link MessageFormat} that's parsed once
+ * and copied for each use, as it's not thread-safe.
+ */
+final class CompiledMessage {
+    /**
+     * Literal text around placeholders. Has one more element than {@link #indices}.
+     * Null if the pattern is left to {@link #messageFormat}.
+     */
+    private final String[] texts;
+
+    /**
+     * Argument index of each placeholder.
+     */
+    private final int[] indices;
+
+    /**
+     * Parsed lazily, because most of the time we don't need it.
+     */
+    private volatile MessageFormat messageFormat;
+
+    private final String pattern;
+
+    CompiledMessage(String pattern) {
+        this.pattern = pattern;
+
+        List<String> texts = new ArrayList<>();
+        List<Integer> indices = new ArrayList<>();
+        boolean simple = pattern.indexOf('\'') < 0; // quoting is left to MessageFormat
+        int start = 0;
+        while (simple) {
+            int open = pattern.indexOf('{', start);
+            if (open < 0) {
+                if (pattern.indexOf('}', start) >= 0) {
+                    simple = false;
+                }
+                break;
+            }
+            int close = pattern.indexOf('}', open);
+            String index = close < 0 ? "" : pattern.substring(open + 1, close);
+            if (index.isEmpty() || index.length() > 4 || !index.chars().allMatch(c -> c >= '0' && c <= '9')) {
+                simple = false; // formats like {0,number}, or something malformed
+                break;
+            }
+            if (pattern.substring(start, open).indexOf('}') >= 0) {
+                simple = false;
+                break;
+            }
+            texts.add(pattern.substring(start, open));
+            indices.add(Integer.parseInt(index));
+            start = close + 1;
+        }
+
+        if (simple) {
+            texts.add(pattern.substring(start));
+            this.texts = texts.toArray(new String[0]);
+            this.indices = indices.stream().mapToInt(Integer::intValue).toArray();
+        } else {
+            this.texts = null;
+            this.indices = null;
+        }
+    }
+
+    String format(Object... args) {
+        if (texts != null) {
+            if (indices.length == 0) {
+                return texts[0];
+            }
+            if (canFormatSimply(args)) {
+                StringBuilder buf = new StringBuilder(pattern.length() + 16 * indices.length);
+                for (int i = 0; i < indices.length; i++) {
+                    buf.append(texts[i]);
+                    int index = indices[i];
+                    if (args == null || index >= args.length) {
+                        buf.append('{').append(index).append('}');
+                    } else {
+                        buf.append(args[index]); // null becomes "null", just like MessageFormat does
+                    }
+                }
+                return buf.append(texts[indices.length]).toString();
+            }
+        }
+
+        MessageFormat f = messageFormat;
+        if (f == null) {
+            messageFormat = f = new MessageFormat(pattern);
+        }
+        return ((MessageFormat) f.clone()).format(args);
+    }
+
+    /**
+     * {@link MessageFormat} formats numbers and dates according to the locale, which we leave to it.
+     */
+    private boolean canFormatSimply(Object[] args) {
+        if (args != null) {
+            for (int index : indices) {
+                if (index < args.length && (args[index] instanceof Number || args[index] instanceof Date)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
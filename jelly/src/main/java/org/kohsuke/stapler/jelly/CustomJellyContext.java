@@ -23,9 +23,12 @@
 
 package org.kohsuke.stapler.jelly;
 
+import java.io.IOException;
 import java.net.URL;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.apache.commons.beanutils.BeanUtilsBean;
@@ -33,12 +36,16 @@ import org.apache.commons.beanutils.PropertyUtilsBean;
 import org.apache.commons.beanutils.SuppressPropertiesBeanIntrospector;
 import org.apache.commons.jelly.JellyContext;
 import org.apache.commons.jelly.JellyException;
+import org.apache.commons.jelly.Script;
 import org.apache.commons.jelly.TagLibrary;
 import org.apache.commons.jelly.expression.Expression;
 import org.apache.commons.jelly.expression.ExpressionFactory;
 import org.apache.commons.jelly.expression.ExpressionSupport;
 import org.apache.commons.jelly.parser.XMLParser;
 import org.kohsuke.stapler.MetaClassLoader;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
 
 /**
  * {@link XMLParser} that uses {@link JellyClassLoaderTearOff#EXPRESSION_FACTORY}
@@ -96,6 +103,25 @@ class CustomJellyContext extends JellyContext {
         return new CustomXMLParser();
     }
 
+    /**
+     * Uses the {@link SaxRecording} of the script if there's an up to date one, instead of parsing it.
+     */
+    @Override
+    public Script compileScript(URL url) throws JellyException {
+        SaxRecording recording = SaxRecording.load(url);
+        if (recording != null) {
+            CustomXMLParser parser = new CustomXMLParser();
+            parser.recording = recording;
+            parser.setContext(this);
+            try {
+                return parser.parse(new InputSource(url.toString())).compile();
+            } catch (IOException | SAXException e) {
+                LOGGER.log(Level.WARNING, "Failed to replay " + url + SaxRecording.SUFFIX + ", parsing it instead", e);
+            }
+        }
+        return super.compileScript(url);
+    }
+
     @Override
     public void setClassLoader(ClassLoader classLoader) {
         super.setClassLoader(classLoader);
@@ -124,6 +150,15 @@ class CustomJellyContext extends JellyContext {
 
     private static class CustomXMLParser extends XMLParser implements ExpressionFactory {
         private ResourceBundle resourceBundle;
+        private SaxRecording recording;
+
+        @Override
+        public XMLReader getXMLReader() throws SAXException {
+            if (recording != null) {
+                return recording.reader(this);
+            }
+            return super.getXMLReader();
+        }
 
         @Override
         protected ExpressionFactory createExpressionFactory() {
@@ -222,6 +257,8 @@ class CustomJellyContext extends JellyContext {
         }
     }
 
+    private static final Logger LOGGER = Logger.getLogger(CustomJellyContext.class.getName());
+
     // "%...."    string literal that starts with '%'
     private static final Pattern RESOURCE_LITERAL_STRING = Pattern.compile("(\"%[^\"]+\")|('%[^']+')");
 }
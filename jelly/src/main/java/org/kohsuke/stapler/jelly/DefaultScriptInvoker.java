@@ -64,7 +64,13 @@ public class DefaultScriptInvoker implements ScriptInvoker, XMLOutputFactory {
         JellyContext context = createContext(req, rsp, script, it);
         exportVariables(req, rsp, script, it, context);
 
-        script.run(context, out);
+        try {
+            script.run(context, out);
+        } finally {
+            // Jelly scripts hold on to their tags, which hold on to the last context they ran with,
+            // so don't let that keep the request and the model objects around for as long as the script is cached
+            context.clear();
+        }
     }
 
     protected XMLOutput createXMLOutput(StaplerRequest2 req, StaplerResponse2 rsp, Script script, Object it)
@@ -107,11 +113,12 @@ public class DefaultScriptInvoker implements ScriptInvoker, XMLOutputFactory {
         }
     }
 
+    @SuppressWarnings("deprecation") // compressed only if enabled, otherwise the same as getOutputStream
     protected OutputStream createOutputStream(StaplerRequest2 req, StaplerResponse2 rsp, Script script, Object it)
             throws IOException {
         OutputStreamSupplier out = new LazyOutputStreamSupplier(() -> {
             req.getWebApp().getDispatchValidator().requireDispatchAllowed(req, rsp);
-            return new BufferedOutputStream(rsp.getOutputStream());
+            return new BufferedOutputStream(rsp.getCompressedOutputStream(req));
         });
         return new OutputStream() {
             @Override
@@ -42,6 +42,7 @@ import org.kohsuke.stapler.Facet;
 import org.kohsuke.stapler.MetaClass;
 import org.kohsuke.stapler.RequestImpl;
 import org.kohsuke.stapler.ResponseImpl;
+import org.kohsuke.stapler.WarmUp;
 import org.kohsuke.stapler.lang.Klass;
 
 /**
@@ -66,6 +67,11 @@ public class JellyFacet extends Facet implements JellyCompatibleFacet {
         dispatchers.add(createValidatingDispatcher(owner.loadTearOff(JellyClassTearOff.class), scriptInvoker));
     }
 
+    @Override
+    public int warmUp(WarmUp warmUp, MetaClass owner) throws Exception {
+        return warmUp(warmUp, owner.loadTearOff(JellyClassTearOff.class));
+    }
+
     @Override
     public void buildIndexDispatchers(MetaClass owner, List<Dispatcher> dispatchers) {
         try {
@@ -0,0 +1,84 @@
+package org.kohsuke.stapler.jelly;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+/**
+ * Checks Jelly views and tag files at build time, and writes down a {@link SaxRecording} of each,
+ * so that they don't need to be parsed again when they are first rendered.
+ *
+ * <p>
+ * Meant to be run on the output directory after resources are copied, for example with
+ * {@code exec-maven-plugin} in the {@code process-classes} phase:
+ *
+ * <pre>
+ * java org.kohsuke.stapler.jelly.JellyPrecompiler target/classes
+ * </pre>
+ *
+ * Fails listing every malformed script with its line number. Recordings of scripts that are later modified
+ * are ignored, so a stale one is never used.
+ */
+public final class JellyPrecompiler {
+    private JellyPrecompiler() {}
+
+    public static void main(String... args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: java " + JellyPrecompiler.class.getName() + " DIR...");
+            System.exit(2);
+        }
+        List<String> errors = new ArrayList<>();
+        int count = 0;
+        for (String arg : args) {
+            count += precompile(Paths.get(arg), errors);
+        }
+        errors.forEach(System.err::println);
+        if (!errors.isEmpty()) {
+            System.exit(1);
+        }
+        System.out.println("Recorded " + count + " Jelly scripts");
+    }
+
+    /**
+     * Records every {@code *.jelly} and {@code *.jellytag} file under the given directory.
+     *
+     * @param errors
+     *      receives a description of every script that's not well-formed.
+     * @return
+     *      number of scripts recorded.
+     */
+    public static int precompile(Path dir, List<String> errors) throws IOException {
+        List<Path> scripts;
+        try (Stream<Path> files = Files.walk(dir)) {
+            scripts = files.filter(p -> {
+                        String n = p.getFileName().toString();
+                        return (n.endsWith(".jelly") || n.endsWith(".jellytag")) && Files.isRegularFile(p);
+                    })
+                    .toList();
+        }
+
+        int count = 0;
+        for (Path script : scripts) {
+            Path out = script.resolveSibling(script.getFileName() + SaxRecording.SUFFIX);
+            try {
+                SaxRecording recording =
+                        SaxRecording.record(Files.readAllBytes(script), script.toUri().toString());
+                Files.write(out, recording.toByteArray());
+                count++;
+            } catch (SAXParseException e) {
+                errors.add(script + ":" + e.getLineNumber() + ":" + e.getColumnNumber() + ": " + e.getMessage());
+                Files.deleteIfExists(out);
+            } catch (SAXException e) {
+                errors.add(script + ": " + e.getMessage());
+                Files.deleteIfExists(out);
+            }
+        }
+        return count;
+    }
+}
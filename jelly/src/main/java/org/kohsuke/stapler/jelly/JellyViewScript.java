@@ -24,12 +24,14 @@
 package org.kohsuke.stapler.jelly;
 
 import java.net.URL;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.apache.commons.jelly.JellyContext;
 import org.apache.commons.jelly.JellyException;
 import org.apache.commons.jelly.JellyTagException;
 import org.apache.commons.jelly.Script;
 import org.apache.commons.jelly.XMLOutput;
+import org.kohsuke.stapler.DiagnosticContext;
 import org.kohsuke.stapler.lang.Klass;
 
 /**
@@ -85,15 +87,22 @@ public final class JellyViewScript implements Script {
 
     @Override
     public void run(JellyContext context, XMLOutput output) throws JellyTagException {
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine(Thread.currentThread().getName() + " " + this);
+        }
+        if (!DiagnosticContext.RENAME_THREADS) {
+            DiagnosticContext.push(this);
+            try {
+                base.run(context, output);
+            } finally {
+                DiagnosticContext.pop();
+            }
+            return;
+        }
+
         Thread t = Thread.currentThread();
         String n = t.getName();
-        // JellyViewScript.getName() is a bit too verbose for this purpose (we do not really need the package prefix):
-        String url = source.toExternalForm();
-        String c = from.getName();
-        c = c.substring(c.lastIndexOf('.') + 1);
-        String n2 = n + " " + c.replace('$', '/') + "/" + url.substring(url.lastIndexOf('/') + 1);
-        t.setName(n2);
-        LOGGER.fine(n2);
+        t.setName(n + " " + this);
         try {
             base.run(context, output);
         } finally {
@@ -101,6 +110,18 @@ public final class JellyViewScript implements Script {
         }
     }
 
+    /**
+     * Short name of the view, as used for diagnostics.
+     */
+    @Override
+    public String toString() {
+        // JellyViewScript.getName() is a bit too verbose for this purpose (we do not really need the package prefix):
+        String url = source.toExternalForm();
+        String c = from.getName();
+        c = c.substring(c.lastIndexOf('.') + 1);
+        return c.replace('$', '/') + "/" + url.substring(url.lastIndexOf('/') + 1);
+    }
+
     public String getName() {
         // get to the file name portion
         String url = source.toExternalForm();
@@ -29,7 +29,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.net.URL;
-import java.text.MessageFormat;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
@@ -57,6 +56,12 @@ public class ResourceBundle {
      */
     private final Map<String, Properties> resources = new ConcurrentHashMap<>();
 
+    /**
+     * Results of {@link #getFormatString(Locale, String)}, ready to be formatted.
+     * {@link #NOT_FOUND} if there's no format string.
+     */
+    private final Map<Locale, Map<String, CompiledMessage>> messages = new ConcurrentHashMap<>();
+
     public ResourceBundle(String baseName) {
         this.baseName = baseName;
     }
@@ -66,14 +71,26 @@ public class ResourceBundle {
     }
 
     public String format(Locale locale, String key, Object... args) {
-        String str = getFormatString(locale, key);
-        if (str == null) {
+        CompiledMessage msg = getMessage(locale, key);
+        if (msg == NOT_FOUND) {
             // see http://www.nabble.com/i18n-and-l10n-problems-td16004047.html for more discussion
             // return MessageFormat.format(key,args);
             return key;
         }
 
-        return MessageFormat.format(str, args);
+        return msg.format(args);
+    }
+
+    private CompiledMessage getMessage(Locale locale, String key) {
+        if (MetaClass.NO_CACHE) {
+            String str = getFormatString(locale, key);
+            return str == null ? NOT_FOUND : new CompiledMessage(str);
+        }
+        return messages.computeIfAbsent(locale, l -> new ConcurrentHashMap<>())
+                .computeIfAbsent(key, k -> {
+                    String str = getFormatString(locale, k);
+                    return str == null ? NOT_FOUND : new CompiledMessage(str);
+                });
     }
 
     /**
@@ -135,6 +152,7 @@ public class ResourceBundle {
 
     protected void clearCache() {
         resources.clear();
+        messages.clear();
     }
 
     protected Properties get(String key) {
@@ -211,6 +229,8 @@ public class ResourceBundle {
         return facet.resourceBundleFactory.create(jellyUrl);
     }
 
+    private static final CompiledMessage NOT_FOUND = new CompiledMessage("");
+
     /**
      * JDK internally converts new ISO-639 code back to old code. This table provides reverse mapping.
      */
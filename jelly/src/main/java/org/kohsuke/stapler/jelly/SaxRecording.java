@@ -0,0 +1,446 @@
+package org.kohsuke.stapler.jelly;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.DTDHandler;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * SAX events of a Jelly script, recorded at build time by {@link JellyPrecompiler}
+ * so that they can be replayed into Jelly's parser instead of parsing the XML again.
+ *
+ * <p>
+ * The recording of {@code foo.jelly} is kept next to it as {@code foo.jelly.sax}, and is only used if it was made
+ * from the same source, which is checked by a CRC. Tag libraries are still resolved when the script is compiled,
+ * as that depends on the class loader.
+ */
+final class SaxRecording {
+    static final String SUFFIX = ".sax";
+
+    private static final int MAGIC = 0x4a534158; // JSAX
+    private static final int VERSION = 2;
+
+    private static final byte START_PREFIX = 1,
+            END_PREFIX = 2,
+            START_ELEMENT = 3,
+            END_ELEMENT = 4,
+            CHARACTERS = 5,
+            IGNORABLE_WHITESPACE = 6,
+            PROCESSING_INSTRUCTION = 7,
+            END = 0;
+
+    private final byte[] data;
+
+    private SaxRecording(byte[] data) {
+        this.data = data;
+    }
+
+    byte[] toByteArray() {
+        return data.clone();
+    }
+
+    /**
+     * Records the SAX events of the given script, the way Jelly's parser would see them.
+     *
+     * @throws SAXException if the script isn't well-formed
+     */
+    static SaxRecording record(byte[] source, String systemId) throws IOException, SAXException {
+        Recorder recorder = new Recorder();
+        try {
+            SAXParserFactory factory = SAXParserFactory.newInstance();
+            factory.setNamespaceAware(true);
+            factory.setValidating(false);
+            InputSource in = new InputSource(new ByteArrayInputStream(source));
+            in.setSystemId(systemId);
+            factory.newSAXParser().parse(in, recorder);
+        } catch (ParserConfigurationException e) {
+            throw new SAXException(e);
+        }
+        return new SaxRecording(recorder.toByteArray(source));
+    }
+
+    /**
+     * Loads the recording that's next to the given script, if there's one and it's up to date.
+     */
+    static SaxRecording load(URL source) {
+        if (DISABLED) {
+            return null;
+        }
+        byte[] data;
+        try (InputStream in = new URL(source, fileName(source) + SUFFIX).openStream()) {
+            data = in.readAllBytes();
+        } catch (IOException e) {
+            return null; // not there
+        }
+
+        try (InputStream in = source.openStream()) {
+            DataInputStream header = new DataInputStream(new ByteArrayInputStream(data));
+            if (header.readInt() != MAGIC
+                    || header.readInt() != VERSION
+                    || header.readLong() != crc(in.readAllBytes())) {
+                LOGGER.fine(() -> "Ignoring stale " + source + SUFFIX);
+                return null;
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Failed to check " + source + SUFFIX, e);
+            return null;
+        }
+        return new SaxRecording(data);
+    }
+
+    private static String fileName(URL url) {
+        String path = url.getPath();
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    private static long crc(byte[] source) {
+        CRC32 crc = new CRC32();
+        crc.update(source);
+        return crc.getValue();
+    }
+
+    /**
+     * Sends the recorded events to the handler.
+     */
+    void replay(ContentHandler handler, String systemId) throws SAXException {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+            in.readInt(); // magic
+            in.readInt(); // version
+            in.readLong(); // CRC
+            String[] strings = new String[in.readInt()];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] b = new byte[in.readInt()];
+                in.readFully(b);
+                strings[i] = new String(b, StandardCharsets.UTF_8);
+            }
+
+            ReplayLocator locator = new ReplayLocator(systemId);
+            handler.setDocumentLocator(locator);
+            handler.startDocument();
+            byte type;
+            while ((type = in.readByte()) != END) {
+                switch (type) {
+                    case START_PREFIX -> handler.startPrefixMapping(strings[in.readInt()], strings[in.readInt()]);
+                    case END_PREFIX -> handler.endPrefixMapping(strings[in.readInt()]);
+                    case START_ELEMENT -> {
+                        locator.read(in);
+                        String uri = strings[in.readInt()];
+                        String localName = strings[in.readInt()];
+                        String qName = strings[in.readInt()];
+                        AttributesImpl atts = new AttributesImpl();
+                        for (int i = in.readInt(); i > 0; i--) {
+                            atts.addAttribute(
+                                    strings[in.readInt()],
+                                    strings[in.readInt()],
+                                    strings[in.readInt()],
+                                    strings[in.readInt()],
+                                    strings[in.readInt()]);
+                        }
+                        handler.startElement(uri, localName, qName, atts);
+                    }
+                    case END_ELEMENT -> {
+                        locator.read(in);
+                        handler.endElement(strings[in.readInt()], strings[in.readInt()], strings[in.readInt()]);
+                    }
+                    case CHARACTERS, IGNORABLE_WHITESPACE -> {
+                        locator.read(in);
+                        char[] text = strings[in.readInt()].toCharArray();
+                        if (type == CHARACTERS) {
+                            handler.characters(text, 0, text.length);
+                        } else {
+                            handler.ignorableWhitespace(text, 0, text.length);
+                        }
+                    }
+                    case PROCESSING_INSTRUCTION -> {
+                        locator.read(in);
+                        handler.processingInstruction(strings[in.readInt()], strings[in.readInt()]);
+                    }
+                    default -> throw new SAXException("Corrupt recording: " + systemId + SUFFIX);
+                }
+            }
+            handler.endDocument();
+        } catch (IOException e) {
+            throw new SAXException("Corrupt recording: " + systemId + SUFFIX, e);
+        }
+    }
+
+    /**
+     * {@link XMLReader} that replays the recording instead of parsing anything.
+     */
+    XMLReader reader(ContentHandler handler) {
+        return new XMLReader() {
+            @Override
+            public void parse(InputSource input) throws SAXException {
+                replay(handler, input.getSystemId());
+            }
+
+            @Override
+            public void parse(String systemId) throws SAXException {
+                replay(handler, systemId);
+            }
+
+            @Override
+            public boolean getFeature(String name) {
+                return false;
+            }
+
+            @Override
+            public void setFeature(String name, boolean value) {}
+
+            @Override
+            public Object getProperty(String name) {
+                return null;
+            }
+
+            @Override
+            public void setProperty(String name, Object value) {}
+
+            @Override
+            public void setEntityResolver(EntityResolver resolver) {}
+
+            @Override
+            public EntityResolver getEntityResolver() {
+                return null;
+            }
+
+            @Override
+            public void setDTDHandler(DTDHandler handler) {}
+
+            @Override
+            public DTDHandler getDTDHandler() {
+                return null;
+            }
+
+            @Override
+            public void setContentHandler(ContentHandler handler) {}
+
+            @Override
+            public ContentHandler getContentHandler() {
+                return handler;
+            }
+
+            @Override
+            public void setErrorHandler(ErrorHandler handler) {}
+
+            @Override
+            public ErrorHandler getErrorHandler() {
+                return null;
+            }
+        };
+    }
+
+    private static final class ReplayLocator implements Locator {
+        private final String systemId;
+        private int line, column;
+
+        ReplayLocator(String systemId) {
+            this.systemId = systemId;
+        }
+
+        void read(DataInputStream in) throws IOException {
+            line = in.readInt();
+            column = in.readInt();
+        }
+
+        @Override
+        public String getPublicId() {
+            return null;
+        }
+
+        @Override
+        public String getSystemId() {
+            return systemId;
+        }
+
+        @Override
+        public int getLineNumber() {
+            return line;
+        }
+
+        @Override
+        public int getColumnNumber() {
+            return column;
+        }
+    }
+
+    /**
+     * Writes down the events as they come, with strings replaced by indices into a table.
+     */
+    private static final class Recorder extends DefaultHandler {
+        private final ByteArrayOutputStream events = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(events);
+        private final Map<String, Integer> indices = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+        private Locator locator;
+        /**
+         * Text that hasn't been written yet, as SAX parsers may report it in pieces.
+         */
+        private final StringBuilder text = new StringBuilder();
+
+        private int textLine, textColumn;
+
+        @Override
+        public void setDocumentLocator(Locator locator) {
+            this.locator = locator;
+        }
+
+        private void string(String s) throws SAXException {
+            if (s == null) {
+                s = "";
+            }
+            Integer i = indices.get(s);
+            if (i == null) {
+                indices.put(s, i = strings.size());
+                strings.add(s);
+            }
+            writeInt(i);
+        }
+
+        private void writeInt(int i) throws SAXException {
+            try {
+                out.writeInt(i);
+            } catch (IOException e) {
+                throw new SAXException(e); // ByteArrayOutputStream doesn't throw
+            }
+        }
+
+        private void event(byte type, boolean located) throws SAXException {
+            events.write(type);
+            if (located) {
+                writeInt(locator != null ? locator.getLineNumber() : -1);
+                writeInt(locator != null ? locator.getColumnNumber() : -1);
+            }
+        }
+
+        private void flushText() throws SAXException {
+            if (!text.isEmpty()) {
+                event(CHARACTERS, false);
+                writeInt(textLine);
+                writeInt(textColumn);
+                string(text.toString());
+                text.setLength(0);
+            }
+        }
+
+        @Override
+        public void startPrefixMapping(String prefix, String uri) throws SAXException {
+            flushText();
+            event(START_PREFIX, false);
+            string(prefix);
+            string(uri);
+        }
+
+        @Override
+        public void endPrefixMapping(String prefix) throws SAXException {
+            flushText();
+            event(END_PREFIX, false);
+            string(prefix);
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes atts) throws SAXException {
+            flushText();
+            event(START_ELEMENT, true);
+            string(uri);
+            string(localName);
+            string(qName);
+            writeInt(atts.getLength());
+            for (int i = 0; i < atts.getLength(); i++) {
+                string(atts.getURI(i));
+                string(atts.getLocalName(i));
+                string(atts.getQName(i));
+                string(atts.getType(i));
+                string(atts.getValue(i));
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            flushText();
+            event(END_ELEMENT, true);
+            string(uri);
+            string(localName);
+            string(qName);
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (text.isEmpty() && locator != null) {
+                textLine = locator.getLineNumber();
+                textColumn = locator.getColumnNumber();
+            }
+            text.append(ch, start, length);
+        }
+
+        @Override
+        public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+            flushText();
+            event(IGNORABLE_WHITESPACE, true);
+            string(new String(ch, start, length));
+        }
+
+        @Override
+        public void processingInstruction(String target, String data) throws SAXException {
+            flushText();
+            event(PROCESSING_INSTRUCTION, true);
+            string(target);
+            string(data);
+        }
+
+        @Override
+        public void endDocument() throws SAXException {
+            flushText();
+            event(END, false);
+        }
+
+        byte[] toByteArray(byte[] source) throws IOException {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream(events.size() * 2);
+            DataOutputStream header = new DataOutputStream(baos);
+            header.writeInt(MAGIC);
+            header.writeInt(VERSION);
+            header.writeLong(crc(source));
+            header.writeInt(strings.size());
+            for (String s : strings) {
+                // not writeUTF, which is limited to 64K, while text can be longer than that
+                byte[] b = s.getBytes(StandardCharsets.UTF_8);
+                header.writeInt(b.length);
+                header.write(b);
+            }
+            events.writeTo(baos);
+            return baos.toByteArray();
+        }
+    }
+
+    /**
+     * Set to true to ignore recordings, and always parse the scripts.
+     */
+    public static /* nonfinal for Jenkins script console */ boolean DISABLED =
+            Boolean.getBoolean(SaxRecording.class.getName() + ".disabled");
+
+    private static final Logger LOGGER = Logger.getLogger(SaxRecording.class.getName());
+}
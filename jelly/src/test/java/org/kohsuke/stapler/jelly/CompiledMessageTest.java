@@ -0,0 +1,43 @@
+package org.kohsuke.stapler.jelly;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.text.MessageFormat;
+import java.util.Date;
+import org.junit.jupiter.api.Test;
+
+class CompiledMessageTest {
+
+    private static void assertSameAsMessageFormat(String pattern, Object... args) {
+        assertEquals(MessageFormat.format(pattern, args), new CompiledMessage(pattern).format(args), pattern);
+    }
+
+    @Test
+    void plainText() {
+        assertSameAsMessageFormat("Hello, World!");
+        assertSameAsMessageFormat("");
+        assertSameAsMessageFormat("Hello, World!", "unused");
+    }
+
+    @Test
+    void simplePlaceholders() {
+        assertSameAsMessageFormat("Hello, {0}!", "World");
+        assertSameAsMessageFormat("{1} and {0}", "a", "b");
+        assertSameAsMessageFormat("{0}{0}{0}", "x");
+        assertSameAsMessageFormat("{0} is {1}", "this", null);
+        assertSameAsMessageFormat("{0} is {1}", "missing");
+        assertSameAsMessageFormat("{0}", (Object[]) null);
+        assertSameAsMessageFormat("{0}", new StringBuilder("object"));
+    }
+
+    @Test
+    void leftToMessageFormat() {
+        assertSameAsMessageFormat("{0} builds", 1234567);
+        assertSameAsMessageFormat("{0}", new Date(0));
+        assertSameAsMessageFormat("{0,number,integer} builds", 1234.5);
+        assertSameAsMessageFormat("It''s {0}", "quoted");
+        assertSameAsMessageFormat("'{0}' is literal", "x");
+        assertSameAsMessageFormat("{0,choice,0#none|1#one|1<many}", 2);
+        assertSameAsMessageFormat("stray } brace");
+    }
+}
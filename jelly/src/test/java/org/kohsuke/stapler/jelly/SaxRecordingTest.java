@@ -0,0 +1,199 @@
+package org.kohsuke.stapler.jelly;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.parsers.SAXParserFactory;
+import org.apache.commons.jelly.Script;
+import org.apache.commons.jelly.XMLOutput;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.Locator;
+import org.xml.sax.helpers.DefaultHandler;
+
+class SaxRecordingTest {
+
+    private static final String SCRIPT = "<?jelly escape-by-default='true'?>\n"
+            + "<j:jelly xmlns:j=\"jelly:core\" xmlns:st=\"jelly:stapler\">\n"
+            + "  <st:contentType value=\"text/html\"/>\n"
+            + "  <p class='x' id=\"a&amp;b\">Hello, ${it.name} &lt;&#233;&gt;</p>\n"
+            + "  <![CDATA[ raw <text> ]]>\n"
+            + "</j:jelly>\n";
+
+    @TempDir
+    Path tmp;
+
+    /**
+     * Logs events, merging adjacent text the way Jelly does.
+     */
+    private static class Log extends DefaultHandler {
+        final List<String> events = new ArrayList<>();
+        final StringBuilder text = new StringBuilder();
+        Locator locator;
+
+        @Override
+        public void setDocumentLocator(Locator locator) {
+            this.locator = locator;
+        }
+
+        private void add(String event) {
+            if (!text.isEmpty()) {
+                events.add("text " + text);
+                text.setLength(0);
+            }
+            events.add(event);
+        }
+
+        @Override
+        public void startPrefixMapping(String prefix, String uri) {
+            add("prefix " + prefix + "=" + uri);
+        }
+
+        @Override
+        public void endPrefixMapping(String prefix) {
+            add("/prefix " + prefix);
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes atts) {
+            StringBuilder b = new StringBuilder("<{" + uri + "}" + localName + " " + qName + " @"
+                    + locator.getLineNumber() + " " + locator.getSystemId());
+            for (int i = 0; i < atts.getLength(); i++) {
+                b.append(' ').append(atts.getQName(i)).append("=").append(atts.getValue(i));
+            }
+            add(b.toString());
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            add("</{" + uri + "}" + localName + " " + qName);
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            text.append(ch, start, length);
+        }
+
+        @Override
+        public void processingInstruction(String target, String data) {
+            add("?" + target + " " + data);
+        }
+
+        @Override
+        public void endDocument() {
+            add("end");
+        }
+    }
+
+    @Test
+    void replaysWhatTheParserSees() throws Exception {
+        byte[] source = SCRIPT.getBytes(StandardCharsets.UTF_8);
+        String systemId = "file:/views/index.jelly";
+
+        Log parsed = new Log();
+        SAXParserFactory factory = SAXParserFactory.newInstance();
+        factory.setNamespaceAware(true);
+        InputSource in = new InputSource(new ByteArrayInputStream(source));
+        in.setSystemId(systemId);
+        factory.newSAXParser().parse(in, parsed);
+
+        Log replayed = new Log();
+        SaxRecording.record(source, systemId).reader(replayed).parse(systemId);
+
+        assertEquals(parsed.events, replayed.events);
+    }
+
+    @Test
+    void longText() throws Exception {
+        String text = "\u00e9".repeat(40_000); // more than 64K in UTF-8
+        byte[] source = ("<p a='" + text + "'>" + text + "</p>").getBytes(StandardCharsets.UTF_8);
+        String systemId = "file:/views/long.jelly";
+
+        Log replayed = new Log();
+        SaxRecording.record(source, systemId).reader(replayed).parse(systemId);
+        assertEquals(
+                List.of("<{}p p @1 " + systemId + " a=" + text, "text " + text, "</{}p p", "end"), replayed.events);
+    }
+
+    @Test
+    void rendersFromRecording() throws Exception {
+        Path script = tmp.resolve("view.jelly");
+        Files.writeString(script, """
+                <j:jelly xmlns:j="jelly:core">
+                  <j:set var="greeting" value="Hello"/>
+                  <ul>
+                    <j:forEach var="n" items="${names}"><li class="n">${greeting}, ${n}!</li></j:forEach>
+                  </ul>
+                </j:jelly>
+                """);
+        assertEquals(1, JellyPrecompiler.precompile(tmp, new ArrayList<>()));
+        assertNotNull(SaxRecording.load(script.toUri().toURL()));
+
+        String replayed = render(script);
+        assertThat(replayed, containsString("<li class=\"n\">Hello, a&lt;b!</li>"));
+        assertThat(replayed, containsString("<li class=\"n\">Hello, c!</li>"));
+        assertThat(replayed, not(containsString("j:"))); // tags were resolved to the core tag library
+
+        SaxRecording.DISABLED = true;
+        try {
+            assertEquals(render(script), replayed);
+        } finally {
+            SaxRecording.DISABLED = false;
+        }
+    }
+
+    private static String render(Path script) throws Exception {
+        CustomJellyContext context = new CustomJellyContext();
+        Script s = context.compileScript(script.toUri().toURL());
+        context.setVariable("names", List.of("a<b", "c"));
+        StringWriter w = new StringWriter();
+        XMLOutput out = XMLOutput.createXMLOutput(w);
+        s.run(context, out);
+        out.flush();
+        return w.toString();
+    }
+
+    @Test
+    void staleRecordingIsIgnored() throws Exception {
+        Path script = tmp.resolve("index.jelly");
+        Files.writeString(script, SCRIPT);
+        assertNull(SaxRecording.load(script.toUri().toURL()));
+
+        List<String> errors = new ArrayList<>();
+        assertEquals(1, JellyPrecompiler.precompile(tmp, errors));
+        assertTrue(errors.isEmpty());
+        assertTrue(Files.exists(tmp.resolve("index.jelly.sax")));
+        assertNotNull(SaxRecording.load(script.toUri().toURL()));
+
+        Files.writeString(script, SCRIPT.replace("Hello", "Bye"));
+        assertNull(SaxRecording.load(script.toUri().toURL()));
+    }
+
+    @Test
+    void malformedScriptIsReported() throws Exception {
+        Files.writeString(tmp.resolve("good.jellytag"), "<p/>");
+        Files.writeString(tmp.resolve("bad.jelly"), "<p>\n<b></p>");
+
+        List<String> errors = new ArrayList<>();
+        assertEquals(1, JellyPrecompiler.precompile(tmp, errors));
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).startsWith(tmp.resolve("bad.jelly") + ":2:"), errors.get(0));
+        assertFalse(Files.exists(tmp.resolve("bad.jelly.sax")));
+        assertTrue(Files.exists(tmp.resolve("good.jellytag.sax")));
+    }
+}
@@ -0,0 +1,31 @@
+package org.kohsuke.stapler.jelly;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.kohsuke.stapler.WarmUp;
+import org.kohsuke.stapler.test.JettyTestCase;
+
+class WarmUpTest extends JettyTestCase {
+
+    @Test
+    void loadsViews() throws Exception {
+        WarmUp w = webApp.warmUp(List.of(Root.class));
+        w.getFuture().get(1, TimeUnit.MINUTES);
+
+        // the index view of Root is localized, which needs the WebApp while there's no request
+        assertEquals(2, w.getClassCount());
+        assertEquals(2, w.getViewCount());
+        assertEquals(0, w.getFailureCount());
+    }
+
+    public static class Root {
+        public Child getChild() {
+            return null;
+        }
+    }
+
+    public static class Child {}
+}